@@ -19,7 +19,7 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode(of = "name")
-final class AddDirective implements Directive {
+final class AddDirective implements Directive, Instruction, Session.Aware {
 
     /**
      * Name of node to add.
@@ -31,8 +31,17 @@ final class AddDirective implements Directive {
      * @param node Name of node to add
      * @throws XmlContentException If invalid input
      */
-    AddDirective(final String node) throws XmlContentException {
-        this.name = new Arg(node);
+    AddDirective(final CharSequence node) throws XmlContentException {
+        this(new Arg(node));
+    }
+
+    /**
+     * Ctor.
+     * @param node Name of node to add, which is valid already
+     * @since 0.33
+     */
+    AddDirective(final Arg node) {
+        this.name = node;
     }
 
     @Override
@@ -41,21 +50,62 @@ final class AddDirective implements Directive {
     }
 
     @Override
-    @SuppressWarnings("aibolit.P13")
+    public int opcode() {
+        return Opcodes.ADD;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.name.raw()};
+    }
+
+    @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack) {
-        final Collection<Node> targets = new ArrayList<>(cursor.size());
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    @SuppressWarnings("aibolit.P13")
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) {
         final Document doc;
         if (dom.getOwnerDocument() == null) {
             doc = Document.class.cast(dom);
         } else {
             doc = dom.getOwnerDocument();
         }
-        for (final Node node : cursor) {
-            final Element element = doc.createElement(this.name.raw());
-            node.appendChild(element);
-            targets.add(element);
+        final Directive.Cursor result;
+        if (cursor instanceof SingleCursor) {
+            result = new SingleCursor(
+                this.add(doc, SingleCursor.class.cast(cursor).node())
+            );
+        } else {
+            final Collection<Node> targets = new ArrayList<>(cursor.size());
+            for (final Node node : cursor) {
+                targets.add(this.add(doc, node));
+            }
+            result = new DomCursor(targets);
         }
-        return new DomCursor(targets);
+        final Index index = session.index();
+        if (index != null) {
+            for (final Node node : result) {
+                index.added(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add an element to the node.
+     * @param doc Document
+     * @param node The node
+     * @return The element added
+     */
+    private Element add(final Document doc, final Node node) {
+        final Element element = doc.createElement(this.name.raw());
+        node.appendChild(element);
+        return element;
     }
 }
@@ -19,7 +19,7 @@ import org.w3c.dom.NodeList;
  * @since 0.1
  */
 @EqualsAndHashCode(of = "name")
-final class AddIfDirective implements Directive {
+final class AddIfDirective implements Directive, Instruction, Session.Aware {
 
     /**
      * Name of node to add.
@@ -31,8 +31,17 @@ final class AddIfDirective implements Directive {
      * @param node Name of node to add
      * @throws XmlContentException If invalid input
      */
-    AddIfDirective(final String node) throws XmlContentException {
-        this.name = new Arg(node);
+    AddIfDirective(final CharSequence node) throws XmlContentException {
+        this(new Arg(node));
+    }
+
+    /**
+     * Ctor.
+     * @param node Name of node to add, which is valid already
+     * @since 0.33
+     */
+    AddIfDirective(final Arg node) {
+        this.name = node;
     }
 
     @Override
@@ -41,33 +50,73 @@ final class AddIfDirective implements Directive {
     }
 
     @Override
-    @SuppressWarnings("aibolit.P32")
+    public int opcode() {
+        return Opcodes.ADDIF;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.name.raw()};
+    }
+
+    @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack) {
-        final Collection<Node> targets = new ArrayList<>(cursor.size());
-        for (final Node node : cursor) {
-            final NodeList kids = node.getChildNodes();
-            Node target = null;
-            final int len = kids.getLength();
-            for (int idx = 0; idx < len; ++idx) {
-                if (kids.item(idx).getNodeName()
-                    .compareToIgnoreCase(this.name.raw()) == 0) {
-                    target = kids.item(idx);
-                    break;
-                }
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    @SuppressWarnings("aibolit.P32")
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) {
+        final Index index = session.index();
+        final Directive.Cursor result;
+        if (cursor instanceof SingleCursor) {
+            result = new SingleCursor(
+                this.target(dom, SingleCursor.class.cast(cursor).node(), index)
+            );
+        } else {
+            final Collection<Node> targets = new ArrayList<>(cursor.size());
+            for (final Node node : cursor) {
+                targets.add(this.target(dom, node, index));
+            }
+            result = new DomCursor(targets);
+        }
+        return result;
+    }
+
+    /**
+     * Find the child of the node or add it, if it's absent.
+     * @param dom Document
+     * @param node The node
+     * @param index Index of the document or NULL
+     * @return The child found or added
+     */
+    private Node target(final Node dom, final Node node, final Index index) {
+        final NodeList kids = node.getChildNodes();
+        Node target = null;
+        final int len = kids.getLength();
+        for (int idx = 0; idx < len; ++idx) {
+            if (kids.item(idx).getNodeName()
+                .compareToIgnoreCase(this.name.raw()) == 0) {
+                target = kids.item(idx);
+                break;
+            }
+        }
+        if (target == null) {
+            final Document doc;
+            if (dom.getOwnerDocument() == null) {
+                doc = Document.class.cast(dom);
+            } else {
+                doc = dom.getOwnerDocument();
             }
-            if (target == null) {
-                final Document doc;
-                if (dom.getOwnerDocument() == null) {
-                    doc = Document.class.cast(dom);
-                } else {
-                    doc = dom.getOwnerDocument();
-                }
-                target = doc.createElement(this.name.raw());
-                node.appendChild(target);
+            target = doc.createElement(this.name.raw());
+            node.appendChild(target);
+            if (index != null) {
+                index.added(target);
             }
-            targets.add(target);
         }
-        return new DomCursor(targets);
+        return target;
     }
 }
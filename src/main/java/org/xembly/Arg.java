@@ -4,43 +4,50 @@
  */
 package org.xembly;
 
-import lombok.EqualsAndHashCode;
-
 /**
  * Argument properly escaped.
  *
+ * <p>The value may be a view of a region of a bigger text, for example
+ * of the Xembly script it was parsed from. In that case it is not copied
+ * until {@link #raw()} is called for the first time.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @since 0.1
  */
-@EqualsAndHashCode(of = "value")
 final class Arg {
 
     /**
-     * Value of it.
+     * Value of it, either a {@link String} or a view, which is
+     * replaced with a {@link String} on the first call to {@link #raw()}.
+     * The race is benign, like the one in {@link String#hashCode()}:
+     * all threads would make equal strings.
      */
-    private final String value;
+    private CharSequence value;
 
     /**
      * Public ctor.
-     * @param val Value of it
+     * @param val Value of it, which must not be modified later
      * @throws XmlContentException If fails
      */
-    Arg(final String val) throws XmlContentException {
-        this(Arg.ifValid(val).toCharArray());
+    Arg(final CharSequence val) throws XmlContentException {
+        this.value = Arg.ifValid(val);
     }
 
-    /**
-     * Primary ctor.
-     * @param chars Validated characters
-     */
-    private Arg(final char... chars) {
-        this.value = new String(chars);
+    @Override
+    public String toString() {
+        return String.format("\"%s\"", Arg.escape(this.raw()));
     }
 
     @Override
-    public String toString() {
-        return String.format("\"%s\"", Arg.escape(this.value));
+    public boolean equals(final Object other) {
+        return this == other || other instanceof Arg
+            && this.raw().equals(Arg.class.cast(other).raw());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.raw().hashCode();
     }
 
     /**
@@ -48,7 +55,15 @@ final class Arg {
      * @return Value
      */
     String raw() {
-        return this.value;
+        final CharSequence val = this.value;
+        final String str;
+        if (val instanceof String) {
+            str = (String) val;
+        } else {
+            str = val.toString();
+            this.value = str;
+        }
+        return str;
     }
 
     /**
@@ -57,35 +72,46 @@ final class Arg {
      * @return Clean text
      * @throws XmlContentException If fails
      */
-    @SuppressWarnings("aibolit.P32")
     static String unescape(final String text) throws XmlContentException {
-        final char[] chars = text.toCharArray();
-        if (chars.length < 2) {
+        if (text.length() < 2) {
             throw new IllegalArgumentException(
                 "Internal error, argument can't be shorter than 2 chars"
             );
         }
-        final int len = chars.length - 1;
-        final StringBuilder output = new StringBuilder(text.length());
-        int idx = 1;
-        while (true) {
-            if (idx >= len) {
-                break;
-            }
-            if (chars[idx] == '&') {
-                final StringBuilder sbuf = new StringBuilder(0);
-                while (chars[idx] != ';') {
-                    ++idx;
-                    if (idx == chars.length) {
-                        throw new XmlContentException(
-                            "Reached EOF while parsing XML symbol"
-                        );
-                    }
-                    sbuf.append(chars[idx]);
+        return Arg.unescape(text, 1, text.length() - 1);
+    }
+
+    /**
+     * Un-escape all XML symbols in the given region of the text.
+     * @param text XML text
+     * @param start Index of the first char of the region
+     * @param end Index right after the last char of the region
+     * @return Clean text
+     * @throws XmlContentException If fails
+     * @since 0.33
+     */
+    static String unescape(final CharSequence text, final int start,
+        final int end) throws XmlContentException {
+        final StringBuilder output = new StringBuilder(end - start);
+        int idx = start;
+        while (idx < end) {
+            final char chr = text.charAt(idx);
+            if (chr == '&') {
+                int semi = idx + 1;
+                while (semi < end && text.charAt(semi) != ';') {
+                    ++semi;
                 }
-                output.append(Arg.symbol(sbuf.substring(0, sbuf.length() - 1)));
+                if (semi == end) {
+                    throw new XmlContentException(
+                        "Reached EOF while parsing XML symbol"
+                    );
+                }
+                output.append(
+                    Arg.symbol(text.subSequence(idx + 1, semi).toString())
+                );
+                idx = semi;
             } else {
-                output.append(chars[idx]);
+                output.append(chr);
             }
             ++idx;
         }
@@ -117,7 +143,9 @@ final class Arg {
 
     private static char symbol(final String symbol) throws XmlContentException {
         final char chr;
-        if ('#' == symbol.charAt(0)) {
+        if (symbol.isEmpty()) {
+            throw new XmlContentException("Empty XML symbol &;");
+        } else if ('#' == symbol.charAt(0)) {
             chr = Arg.legal((char) Integer.parseInt(symbol.substring(1)));
         } else if ("apos".equalsIgnoreCase(symbol)) {
             chr = '\'';
@@ -158,7 +186,8 @@ final class Arg {
         }
     }
 
-    private static String ifValid(final String val) throws XmlContentException {
+    private static CharSequence ifValid(final CharSequence val)
+        throws XmlContentException {
         for (int idx = 0; idx < val.length(); ++idx) {
             Arg.legal(val.charAt(idx));
         }
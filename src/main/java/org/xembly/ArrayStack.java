@@ -0,0 +1,86 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Arrays;
+
+/**
+ * Stack of DOM cursors in an array, without locks.
+ *
+ * <p>One {@link Xembler#apply(org.w3c.dom.Node)} runs in one thread,
+ * that's why its stack doesn't need to be synchronized,
+ * unlike {@link DomStack}. The stack may be bounded: it fails
+ * right away when a cursor is pushed over the limit.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @since 0.33
+ */
+final class ArrayStack implements Directive.Stack {
+
+    /**
+     * Cursors, the top one is the last.
+     */
+    private Directive.Cursor[] cursors;
+
+    /**
+     * How many cursors there are.
+     */
+    private int depth;
+
+    /**
+     * Maximum number of cursors.
+     */
+    private final int limit;
+
+    /**
+     * Ctor.
+     */
+    ArrayStack() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ctor.
+     * @param max Maximum number of cursors
+     */
+    ArrayStack(final int max) {
+        this.cursors = new Directive.Cursor[Math.min(max, 8)];
+        this.limit = max;
+    }
+
+    @Override
+    public void push(final Directive.Cursor cursor) {
+        if (this.depth == this.limit) {
+            throw new IllegalStateException(
+                String.format(
+                    "Stack is full, can't PUSH more than %d cursors",
+                    this.limit
+                )
+            );
+        }
+        if (this.depth == this.cursors.length) {
+            this.cursors = Arrays.copyOf(
+                this.cursors,
+                (int) Math.min((long) this.limit, this.depth * 2L)
+            );
+        }
+        this.cursors[this.depth] = cursor;
+        ++this.depth;
+    }
+
+    @Override
+    public Directive.Cursor pop() throws ImpossibleModificationException {
+        if (this.depth == 0) {
+            throw new ImpossibleModificationException(
+                "Stack is empty, can't POP"
+            );
+        }
+        --this.depth;
+        final Directive.Cursor cursor = this.cursors[this.depth];
+        this.cursors[this.depth] = null;
+        return cursor;
+    }
+}
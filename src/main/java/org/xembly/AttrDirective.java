@@ -5,6 +5,7 @@
 package org.xembly;
 
 import lombok.EqualsAndHashCode;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
@@ -16,7 +17,7 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode(of = { "name", "value" })
-final class AttrDirective implements Directive {
+final class AttrDirective implements Directive, Instruction, Session.Aware {
 
     /**
      * Attribute name.
@@ -34,10 +35,32 @@ final class AttrDirective implements Directive {
      * @param val Text value to set
      * @throws XmlContentException If invalid input
      */
-    AttrDirective(final String attr, final String val)
+    AttrDirective(final CharSequence attr, final CharSequence val)
         throws XmlContentException {
-        this.name = new Arg(attr);
-        this.value = new Arg(val);
+        this(new Arg(attr), val);
+    }
+
+    /**
+     * Ctor.
+     * @param attr Attribute name, which may be shared
+     * @param val Text value to set
+     * @throws XmlContentException If invalid input
+     * @since 0.33
+     */
+    AttrDirective(final Arg attr, final CharSequence val)
+        throws XmlContentException {
+        this(attr, new Arg(val));
+    }
+
+    /**
+     * Ctor.
+     * @param attr Attribute name, which may be shared
+     * @param val Text value to set, which is valid already
+     * @since 0.33
+     */
+    AttrDirective(final Arg attr, final Arg val) {
+        this.name = attr;
+        this.value = val;
     }
 
     @Override
@@ -45,21 +68,95 @@ final class AttrDirective implements Directive {
         return String.format("ATTR %s, %s", this.name, this.value);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.ATTR;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.name.raw(), this.value.raw()};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack) {
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) {
+        final Index index = session.index();
+        if (cursor instanceof SingleCursor) {
+            this.set(SingleCursor.class.cast(cursor).node(), index);
+        } else {
+            for (final Node node : cursor) {
+                this.set(node, index);
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Set the attribute of the element.
+     *
+     * <p>The name is split into parts only if it has spaces,
+     * which is rare, in order to not allocate anything otherwise.
+     *
+     * @param node The element
+     * @param index Index of the document or NULL
+     */
+    private void set(final Node node, final Index index) {
         final String key = this.name.raw();
         final String val = this.value.raw();
-        final String[] parts = key.split(" ", 0);
-        for (final Node node : cursor) {
+        final Element element = Element.class.cast(node);
+        if (key.indexOf(' ') < 0) {
+            if (index == null) {
+                element.setAttribute(key, val);
+            } else {
+                index.changing(element, key);
+                element.setAttribute(key, val);
+                index.changed(element, key);
+            }
+        } else {
+            final String[] parts = key.split(" ", 0);
             if (parts.length == 3) {
-                Element.class.cast(node).setAttributeNS(
-                    parts[2], String.format("%s:%s", parts[1], parts[0]), val
-                );
+                AttrDirective.namespaced(element, parts, val, index);
             } else {
-                Element.class.cast(node).setAttribute(key, val);
+                element.setAttribute(key, val);
             }
         }
-        return cursor;
+    }
+
+    /**
+     * Set the attribute with a namespace.
+     *
+     * <p>If the element has the attribute with another prefix, the prefix
+     * is changed, that's why both names are changing for the index.
+     *
+     * @param element The element
+     * @param parts Local name, prefix and namespace
+     * @param val Value of the attribute
+     * @param index Index of the document or NULL
+     */
+    private static void namespaced(final Element element, final String[] parts,
+        final String val, final Index index) {
+        final String qualified = String.format("%s:%s", parts[1], parts[0]);
+        if (index == null) {
+            element.setAttributeNS(parts[2], qualified, val);
+        } else {
+            final Attr old = element.getAttributeNodeNS(parts[2], parts[0]);
+            String before = qualified;
+            if (old != null) {
+                before = old.getName();
+            }
+            index.changing(element, before);
+            index.changing(element, qualified);
+            element.setAttributeNS(parts[2], qualified, val);
+            index.changed(element, before);
+            index.changed(element, qualified);
+        }
     }
 }
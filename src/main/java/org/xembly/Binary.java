@@ -0,0 +1,304 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format of directives.
+ *
+ * <p>The program starts with the signature {@code XEMB} and the version
+ * of the format, followed by directives, each of which is an opcode
+ * (one byte, see {@link Opcodes}) followed by references to its
+ * arguments. A reference is a variable-length integer: zero means
+ * that a new string follows (its length in bytes as a variable-length
+ * integer and then its bytes in UTF-8), any other number N refers to the
+ * string #N, which was already seen in the program. Thus, every
+ * distinct string is stored only once. The program ends with
+ * {@link Opcodes#END}.
+ *
+ * <p>The reader never reads beyond the end of the program, that's why
+ * many programs may be stored in one stream, one after another.
+ * It doesn't trust lengths of strings: a string may not be longer than
+ * 256 MB and long strings are read in chunks, so that
+ * a broken program can't make it allocate more memory than the program
+ * really has.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+final class Binary {
+
+    /**
+     * Signature.
+     */
+    private static final byte[] SIGNATURE = {'X', 'E', 'M', 'B'};
+
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The longest string, in bytes.
+     */
+    private static final int LONGEST = 1 << 28;
+
+    /**
+     * Size of a chunk of a long string, in bytes.
+     */
+    private static final int CHUNK = 1 << 16;
+
+    /**
+     * Write directives.
+     * @param dirs Directives, only built-in ones
+     * @param stream Where to write them
+     * @throws IOException If fails
+     */
+    void write(final Iterable<Directive> dirs, final OutputStream stream)
+        throws IOException {
+        final OutputStream out = new BufferedOutputStream(stream);
+        out.write(Binary.SIGNATURE);
+        out.write(Binary.VERSION);
+        final Map<String, Integer> table = new HashMap<>(0);
+        for (final Directive dir : dirs) {
+            if (!(dir instanceof Instruction)) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Directive %s is not built-in, it can't be encoded",
+                        dir
+                    )
+                );
+            }
+            final Instruction instr = Instruction.class.cast(dir);
+            out.write(instr.opcode());
+            for (final String arg : instr.args()) {
+                final Integer ref = table.get(arg);
+                if (ref == null) {
+                    table.put(arg, table.size() + 1);
+                    Binary.varint(out, 0);
+                    final byte[] bytes = arg.getBytes(StandardCharsets.UTF_8);
+                    Binary.varint(out, bytes.length);
+                    out.write(bytes);
+                } else {
+                    Binary.varint(out, ref);
+                }
+            }
+        }
+        out.write(Opcodes.END);
+        out.flush();
+    }
+
+    /**
+     * Read directives.
+     * @param input Where to read them from
+     * @return Directives
+     * @throws IOException If fails or the program is broken, including
+     *  arguments of directives, which are not valid
+     */
+    Collection<Directive> read(final InputStream input) throws IOException {
+        final long start = Metrics.clock();
+        for (final byte sign : Binary.SIGNATURE) {
+            if (Binary.octet(input) != sign) {
+                throw new IOException("It's not a binary Xembly program");
+            }
+        }
+        final int version = Binary.octet(input);
+        if (version != Binary.VERSION) {
+            throw new IOException(
+                String.format("Unsupported version %d of binary Xembly program", version)
+            );
+        }
+        final List<String> table = new ArrayList<>(0);
+        final Collection<Directive> dirs = new ArrayList<>(0);
+        while (true) {
+            final int code = Binary.octet(input);
+            if (code == Opcodes.END) {
+                break;
+            }
+            if (!Opcodes.valid(code)) {
+                throw new IOException(
+                    String.format(
+                        "Unknown opcode #%d of directive #%d", code, dirs.size() + 1
+                    )
+                );
+            }
+            final String[] args = new String[Opcodes.arity(code)];
+            for (int idx = 0; idx < args.length; ++idx) {
+                args[idx] = Binary.string(input, table);
+            }
+            try {
+                dirs.add(Opcodes.make(code, args));
+            } catch (final XmlContentException | IllegalArgumentException ex) {
+                throw new IOException(
+                    String.format(
+                        "Broken arguments of %s directive #%d: %s",
+                        Opcodes.name(code), dirs.size() + 1, ex.getMessage()
+                    ),
+                    ex
+                );
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.GLOBAL.parsed(Binary.length(table), Metrics.clock() - start);
+        }
+        return dirs;
+    }
+
+    /**
+     * Total length of strings.
+     * @param strs The strings
+     * @return Number of chars in all of them
+     */
+    private static int length(final Iterable<String> strs) {
+        int total = 0;
+        for (final String str : strs) {
+            total += str.length();
+        }
+        return total;
+    }
+
+    /**
+     * Read a string, new or already seen.
+     * @param input Input
+     * @param table Strings seen so far
+     * @return The string
+     * @throws IOException If fails
+     */
+    private static String string(final InputStream input, final List<String> table)
+        throws IOException {
+        final int ref = Binary.varint(input);
+        final String str;
+        if (ref == 0) {
+            final int length = Binary.varint(input);
+            if (length > Binary.LONGEST) {
+                throw new IOException(
+                    String.format(
+                        "String of %d bytes is longer than %d bytes allowed",
+                        length, Binary.LONGEST
+                    )
+                );
+            }
+            str = new String(Binary.bytes(input, length), StandardCharsets.UTF_8);
+            table.add(str);
+        } else if (ref <= table.size()) {
+            str = table.get(ref - 1);
+        } else {
+            throw new IOException(
+                String.format("Reference to unknown string #%d", ref)
+            );
+        }
+        return str;
+    }
+
+    /**
+     * Read bytes, in chunks if there are many of them.
+     * @param input Input
+     * @param length How many bytes to read
+     * @return The bytes
+     * @throws IOException If fails or the stream is over
+     */
+    private static byte[] bytes(final InputStream input, final int length)
+        throws IOException {
+        final byte[] chunk = new byte[Math.min(length, Binary.CHUNK)];
+        ByteArrayOutputStream all = null;
+        int rest = length;
+        while (rest > 0) {
+            int done = 0;
+            while (done < Math.min(rest, chunk.length)) {
+                final int len = input.read(
+                    chunk, done, Math.min(rest, chunk.length) - done
+                );
+                if (len < 0) {
+                    throw new EOFException("Unexpected end of binary Xembly program");
+                }
+                done += len;
+            }
+            rest -= done;
+            if (length > chunk.length) {
+                if (all == null) {
+                    all = new ByteArrayOutputStream(chunk.length);
+                }
+                all.write(chunk, 0, done);
+            }
+        }
+        final byte[] bytes;
+        if (all == null) {
+            bytes = chunk;
+        } else {
+            bytes = all.toByteArray();
+        }
+        return bytes;
+    }
+
+    /**
+     * Write variable-length integer, seven bits per byte.
+     * @param out Output
+     * @param num The number, not negative
+     * @throws IOException If fails
+     */
+    private static void varint(final OutputStream out, final int num)
+        throws IOException {
+        int rest = num;
+        while ((rest & ~0x7F) != 0) {
+            out.write(rest & 0x7F | 0x80);
+            rest >>>= 7;
+        }
+        out.write(rest);
+    }
+
+    /**
+     * Read variable-length integer.
+     *
+     * <p>The fifth byte may have only three lower bits, since
+     * the number is never negative.
+     *
+     * @param input Input
+     * @return The number, not negative
+     * @throws IOException If fails
+     */
+    private static int varint(final InputStream input) throws IOException {
+        int num = 0;
+        int shift = 0;
+        while (true) {
+            final int octet = Binary.octet(input);
+            if (shift == 28 && (octet & ~0x07) != 0) {
+                throw new IOException("Malformed integer in binary Xembly program");
+            }
+            num |= (octet & 0x7F) << shift;
+            if ((octet & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+        }
+        return num;
+    }
+
+    /**
+     * Read one byte.
+     * @param input Input
+     * @return The byte, from 0 to 255
+     * @throws IOException If fails or the stream is over
+     */
+    private static int octet(final InputStream input) throws IOException {
+        final int octet = input.read();
+        if (octet < 0) {
+            throw new EOFException("Unexpected end of binary Xembly program");
+        }
+        return octet;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Characters of Xembly script, addressable by absolute position.
+ *
+ * <p>Positions only move forward: once {@link #release(int)} is called,
+ * characters before the given position may be forgotten.
+ *
+ * @since 0.33
+ */
+interface Chars {
+
+    /**
+     * Is there a character at this position?
+     * @param pos Absolute position
+     * @return TRUE if there is one, FALSE if the end of script is reached
+     */
+    boolean has(int pos);
+
+    /**
+     * Character at the position, which {@link #has(int)} confirmed.
+     * @param pos Absolute position
+     * @return The character
+     */
+    char at(int pos);
+
+    /**
+     * View of the region of characters, valid until the next call
+     * to any other method.
+     * @param start Absolute position of the first char
+     * @param end Absolute position right after the last char
+     * @return Chars, without copying them
+     */
+    CharSequence region(int start, int end);
+
+    /**
+     * Region of characters, which stays valid forever.
+     * @param start Absolute position of the first char
+     * @param end Absolute position right after the last char
+     * @return Chars, either copied or viewed
+     */
+    CharSequence slice(int start, int end);
+
+    /**
+     * Characters before this position will not be requested anymore.
+     * @param pos Absolute position
+     */
+    void release(int pos);
+
+    /**
+     * Characters of a text, which is entirely in memory.
+     *
+     * <p>Long slices are views of the text, which are not copied
+     * until they are needed as strings. Short slices are copied, since
+     * a view would take more memory than a short string.
+     *
+     * <p>The class is immutable and thread-safe.
+     *
+     * @since 0.33
+     */
+    final class Sequence implements Chars {
+
+        /**
+         * Slices shorter than this are copied.
+         */
+        private static final int SHORT = 64;
+
+        /**
+         * The text.
+         */
+        private final String text;
+
+        /**
+         * Ctor.
+         * @param txt The text
+         */
+        Sequence(final String txt) {
+            this.text = txt;
+        }
+
+        @Override
+        public boolean has(final int pos) {
+            return pos < this.text.length();
+        }
+
+        @Override
+        public char at(final int pos) {
+            return this.text.charAt(pos);
+        }
+
+        @Override
+        public CharSequence region(final int start, final int end) {
+            return CharBuffer.wrap(this.text, start, end);
+        }
+
+        @Override
+        public CharSequence slice(final int start, final int end) {
+            final CharSequence slice;
+            if (end - start < Chars.Sequence.SHORT) {
+                slice = this.text.substring(start, end);
+            } else {
+                slice = CharBuffer.wrap(this.text, start, end);
+            }
+            return slice;
+        }
+
+        @Override
+        public void release(final int pos) {
+            // nothing to forget, the text is in memory anyway
+        }
+    }
+
+    /**
+     * Characters of a {@link Reader}, read on demand.
+     *
+     * <p>Only the characters after the last released position are kept
+     * in memory, so the size of the buffer is bounded by the longest
+     * directive in the script, not by the size of the script.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    final class Streamed implements Chars {
+
+        /**
+         * Initial size of the buffer.
+         */
+        private static final int SIZE = 8192;
+
+        /**
+         * The reader.
+         */
+        private final Reader reader;
+
+        /**
+         * Buffer.
+         */
+        private char[] buffer;
+
+        /**
+         * Absolute position of the first char in the buffer.
+         */
+        private int offset;
+
+        /**
+         * How many chars are in the buffer.
+         */
+        private int size;
+
+        /**
+         * Absolute position of the first char still needed.
+         */
+        private int mark;
+
+        /**
+         * Is the end of the reader reached?
+         */
+        private boolean eof;
+
+        /**
+         * Ctor.
+         * @param rdr The reader
+         */
+        Streamed(final Reader rdr) {
+            this.reader = rdr;
+            this.buffer = new char[Chars.Streamed.SIZE];
+        }
+
+        @Override
+        public boolean has(final int pos) {
+            while (pos >= this.offset + this.size && !this.eof) {
+                this.fill();
+            }
+            return pos < this.offset + this.size;
+        }
+
+        @Override
+        public char at(final int pos) {
+            return this.buffer[pos - this.offset];
+        }
+
+        @Override
+        public CharSequence region(final int start, final int end) {
+            return CharBuffer.wrap(this.buffer, start - this.offset, end - start);
+        }
+
+        @Override
+        public CharSequence slice(final int start, final int end) {
+            return new String(this.buffer, start - this.offset, end - start);
+        }
+
+        @Override
+        public void release(final int pos) {
+            this.mark = pos;
+        }
+
+        /**
+         * Read more chars from the reader, making room for them first.
+         */
+        private void fill() {
+            if (this.size == this.buffer.length) {
+                final int drop = this.mark - this.offset;
+                if (drop > this.buffer.length / 2) {
+                    System.arraycopy(this.buffer, drop, this.buffer, 0, this.size - drop);
+                    this.offset = this.mark;
+                    this.size -= drop;
+                } else {
+                    final char[] bigger = new char[this.buffer.length * 2];
+                    System.arraycopy(this.buffer, 0, bigger, 0, this.size);
+                    this.buffer = bigger;
+                }
+            }
+            final int len;
+            try {
+                len = this.reader.read(
+                    this.buffer, this.size, this.buffer.length - this.size
+                );
+            } catch (final IOException ex) {
+                throw new IllegalStateException(
+                    String.format(
+                        "Failed to read Xembly script at position #%d",
+                        this.offset + this.size
+                    ),
+                    ex
+                );
+            }
+            if (len < 0) {
+                this.eof = true;
+            } else {
+                this.size += len;
+            }
+        }
+    }
+}
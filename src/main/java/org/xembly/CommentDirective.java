@@ -16,7 +16,7 @@ import org.w3c.dom.Node;
  * @since 0.23
  */
 @EqualsAndHashCode(of = "value")
-final class CommentDirective implements Directive {
+final class CommentDirective implements Directive, Instruction {
 
     /**
      * Text value to set.
@@ -28,8 +28,17 @@ final class CommentDirective implements Directive {
      * @param val Text value to set
      * @throws XmlContentException If invalid input
      */
-    CommentDirective(final String val) throws XmlContentException {
-        this.value = new Arg(val);
+    CommentDirective(final CharSequence val) throws XmlContentException {
+        this(new Arg(val));
+    }
+
+    /**
+     * Ctor.
+     * @param val Text value to set, which is valid already
+     * @since 0.33
+     */
+    CommentDirective(final Arg val) {
+        this.value = val;
     }
 
     @Override
@@ -37,6 +46,16 @@ final class CommentDirective implements Directive {
         return String.format("CDATA %s", this.value);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.COMMENT;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.value.raw()};
+    }
+
     @Override
     @SuppressWarnings("aibolit.P13")
     public Directive.Cursor exec(final Node dom,
@@ -47,8 +66,14 @@ final class CommentDirective implements Directive {
         } else {
             doc = dom.getOwnerDocument();
         }
-        for (final Node node : cursor) {
-            node.appendChild(doc.createComment(this.value.raw()));
+        if (cursor instanceof SingleCursor) {
+            SingleCursor.class.cast(cursor).node().appendChild(
+                doc.createComment(this.value.raw())
+            );
+        } else {
+            for (final Node node : cursor) {
+                node.appendChild(doc.createComment(this.value.raw()));
+            }
         }
         return cursor;
     }
@@ -0,0 +1,299 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Directives, which create a copy of the node, generated lazily.
+ *
+ * <p>Unlike {@link Directives#copyOf(Node)}, it doesn't keep the
+ * directives in memory: they are made one by one, while the node is
+ * being walked through, during iteration. The node must not be
+ * modified until the iteration is over:
+ *
+ * <pre> new Xembler(
+ *   new Directives()
+ *     .xpath("/*")
+ *     .add("jeff")
+ *     .append(new Copy(node))
+ * ).apply(target);</pre>
+ *
+ * <p>The tree is walked without recursion, that's why nodes of any
+ * depth may be copied.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Copy implements Iterable<Directive> {
+
+    /**
+     * The node to copy.
+     */
+    private final Node node;
+
+    /**
+     * Ctor.
+     * @param src The node to copy
+     */
+    public Copy(final Node src) {
+        this.node = src;
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Copy.Walk(this.node);
+    }
+
+    /**
+     * Walk through the tree, from top to bottom.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Walk implements Iterator<Directive> {
+
+        /**
+         * Elements being copied, the current one on top.
+         */
+        private final Deque<Copy.Frame> frames;
+
+        /**
+         * The next directive or NULL if it's not made yet.
+         */
+        private Directive ahead;
+
+        /**
+         * Ctor.
+         * @param root The node to copy
+         */
+        Walk(final Node root) {
+            this.frames = new ArrayDeque<>(1);
+            this.frames.push(new Copy.Frame(root));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.ahead == null && !this.frames.isEmpty()) {
+                final Copy.Frame top = this.frames.peek();
+                if (top.attrs < top.total) {
+                    final Node attr = top.map.item(top.attrs);
+                    ++top.attrs;
+                    this.ahead = Copy.attr(attr);
+                } else if (top.next == null) {
+                    this.frames.pop();
+                    if (!this.frames.isEmpty()) {
+                        this.ahead = Flyweights.UP;
+                    }
+                } else {
+                    final Node child = top.next;
+                    top.next = child.getNextSibling();
+                    ++top.idx;
+                    this.ahead = this.child(child, top.idx - 1);
+                }
+            }
+            return this.ahead != null;
+        }
+
+        @Override
+        public Directive next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("The node is copied already");
+            }
+            final Directive dir = this.ahead;
+            this.ahead = null;
+            return dir;
+        }
+
+        /**
+         * Make a directive for the child node.
+         * @param child The child
+         * @param idx Position of the child among its siblings
+         * @return Directive or NULL if the child is skipped
+         * @checkstyle CyclomaticComplexity (50 lines)
+         */
+        @SuppressWarnings(
+            {
+                "PMD.InefficientEmptyStringCheck",
+                "PMD.CyclomaticComplexity"
+            }
+        )
+        private Directive child(final Node child, final int idx) {
+            Directive dir = null;
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    dir = Copy.add(child);
+                    this.frames.push(new Copy.Frame(child));
+                    break;
+                case Node.ATTRIBUTE_NODE:
+                    dir = Copy.attr(child);
+                    break;
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    if (child.getPreviousSibling() == null
+                        && child.getNextSibling() == null) {
+                        dir = Copy.set(child);
+                    } else if (!child.getTextContent().trim().isEmpty()) {
+                        throw new IllegalArgumentException(
+                            String.format(
+                                "TEXT node #%d is not allowed together with other %d nodes in %s",
+                                idx,
+                                child.getParentNode().getChildNodes().getLength(),
+                                child.getNodeName()
+                            )
+                        );
+                    }
+                    break;
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                    dir = Copy.pi(child);
+                    break;
+                case Node.ENTITY_NODE:
+                case Node.COMMENT_NODE:
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Unsupported type %d of node %s",
+                            child.getNodeType(), child.getNodeName()
+                        )
+                    );
+            }
+            return dir;
+        }
+    }
+
+    /**
+     * Element being copied.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Frame {
+
+        /**
+         * Attributes of the element or NULL if there are none.
+         */
+        private final NamedNodeMap map;
+
+        /**
+         * How many attributes the element has.
+         */
+        private final int total;
+
+        /**
+         * How many attributes are copied already.
+         */
+        private int attrs;
+
+        /**
+         * The next child to copy or NULL if there are no more of them.
+         */
+        private Node next;
+
+        /**
+         * How many children are copied already.
+         */
+        private int idx;
+
+        /**
+         * Ctor.
+         * @param elm The element
+         */
+        Frame(final Node elm) {
+            if (elm.hasAttributes()) {
+                this.map = elm.getAttributes();
+                this.total = this.map.getLength();
+            } else {
+                this.map = null;
+                this.total = 0;
+            }
+            this.next = elm.getFirstChild();
+        }
+    }
+
+    /**
+     * Directive to add the element.
+     * @param node The element
+     * @return Directive
+     */
+    private static Directive add(final Node node) {
+        try {
+            return Flyweights.add(node.getNodeName());
+        } catch (final XmlContentException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to understand XML content, ADD(%s)",
+                    node.getNodeName()
+                ),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Directive to set the attribute.
+     * @param node The attribute
+     * @return Directive
+     */
+    private static Directive attr(final Node node) {
+        try {
+            return Flyweights.attr(node.getNodeName(), node.getNodeValue());
+        } catch (final XmlContentException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to understand XML content, ATTR(%s, %s)",
+                    node.getNodeName(), node.getNodeValue()
+                ),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Directive to set the text.
+     * @param node Text or CDATA node
+     * @return Directive
+     */
+    private static Directive set(final Node node) {
+        try {
+            return new SetDirective(node.getTextContent());
+        } catch (final XmlContentException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to understand XML content, SET(%s)",
+                    node.getTextContent()
+                ),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Directive to add the processing instruction.
+     * @param node The processing instruction
+     * @return Directive
+     */
+    private static Directive pi(final Node node) {
+        try {
+            return new PiDirective(node.getNodeName(), node.getNodeValue());
+        } catch (final XmlContentException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to understand XML content, PI(%s, %s)",
+                    node.getNodeName(), node.getNodeValue()
+                ),
+                ex
+            );
+        }
+    }
+}
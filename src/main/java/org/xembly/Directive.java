@@ -44,7 +44,8 @@ public interface Directive {
     interface Stack {
 
         /**
-         * Push cursor (runtime exception if stack is full).
+         * Push cursor (runtime exception if stack is full, which
+         * {@code PUSH} reports as {@link ImpossibleModificationException}).
          * @param cursor Cursor to push
          */
         void push(Directive.Cursor cursor);
@@ -4,16 +4,15 @@
  */
 package org.xembly;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
-import lombok.EqualsAndHashCode;
-import org.w3c.dom.Attr;
-import org.w3c.dom.NamedNodeMap;
+import java.util.function.Function;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * Collection of {@link Directive}s, instantiable from {@link String}.
@@ -49,24 +48,19 @@ import org.w3c.dom.NodeList;
  *
  * @since 0.1
  */
-@EqualsAndHashCode(of = "all")
 @SuppressWarnings("PMD.TooManyMethods")
 public final class Directives implements Iterable<Directive> {
 
     /**
-     * List of directives.
+     * Log of directives.
      */
-    private final Collection<Directive> all;
+    private final Journal<Directive> all;
 
     /**
      * Public ctor.
      */
     public Directives() {
-        this(
-            Collections.synchronizedCollection(
-                Directives.toCollection(Collections.emptyList())
-            )
-        );
+        this(new Journal<>());
     }
 
     /**
@@ -74,11 +68,7 @@ public final class Directives implements Iterable<Directive> {
      * @param text Xembly script
      */
     public Directives(final String text) {
-        this(
-            Collections.synchronizedCollection(
-                Directives.toCollection(new Verbs(text).directives())
-            )
-        );
+        this(Directives.journal(new Verbs(text).directives()));
     }
 
     /**
@@ -86,25 +76,94 @@ public final class Directives implements Iterable<Directive> {
      * @param dirs Directives
      */
     public Directives(final Iterable<Directive> dirs) {
-        this(Collections.synchronizedCollection(Directives.toCollection(dirs)));
+        this(Directives.journal(dirs));
     }
 
     /**
      * Primary ctor.
-     * @param col Collection of directives
+     * @param jrnl Log of directives
      */
-    private Directives(final Collection<Directive> col) {
-        this.all = col;
+    private Directives(final Journal<Directive> jrnl) {
+        this.all = jrnl;
     }
 
     @Override
     public String toString() {
-        return new Print(this.all).toString();
+        return new Print(this).toString();
     }
 
     @Override
     public Iterator<Directive> iterator() {
-        return this.all.iterator();
+        return new Segment.Flat(this.all);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        boolean equal = this == other;
+        if (!equal && other instanceof Directives) {
+            final Iterator<Directive> mine = this.iterator();
+            final Iterator<Directive> theirs = Directives.class.cast(other).iterator();
+            equal = true;
+            while (equal && mine.hasNext() && theirs.hasNext()) {
+                equal = mine.next().equals(theirs.next());
+            }
+            equal = equal && !mine.hasNext() && !theirs.hasNext();
+        }
+        return equal;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (final Directive dir : this) {
+            hash = 31 * hash + dir.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Make an equivalent and shorter program of these directives.
+     *
+     * <p>Use {@link Optimized} directly to see what was eliminated.
+     *
+     * @return New directives
+     * @see Optimized
+     * @since 0.33
+     */
+    public Directives optimized() {
+        return new Directives(new Optimized(this));
+    }
+
+    /**
+     * Read directives, which were written by {@link #writeTo(OutputStream)}.
+     *
+     * <p>The stream is read exactly up to the end of the program, that's
+     * why many programs may be read from one stream, one after another.
+     * It is recommended to use a buffered stream.
+     *
+     * @param input Stream to read from
+     * @return Directives
+     * @throws IOException If fails to read or the format is broken
+     * @since 0.33
+     */
+    @SuppressWarnings("PMD.ProhibitPublicStaticMethods")
+    public static Directives readFrom(final InputStream input) throws IOException {
+        return new Directives(Directives.journal(new Binary().read(input)));
+    }
+
+    /**
+     * Write directives in a compact binary format.
+     *
+     * <p>Unlike {@link #toString()}, it doesn't escape arguments and
+     * stores every distinct argument only once. Use
+     * {@link #readFrom(InputStream)} to read them back.
+     *
+     * @param output Stream to write to
+     * @throws IOException If fails
+     * @since 0.33
+     */
+    public void writeTo(final OutputStream output) throws IOException {
+        new Binary().write(this, output);
     }
 
     /**
@@ -127,83 +186,37 @@ public final class Directives implements Iterable<Directive> {
      * );
      * </pre>
      *
+     * <p>The node is walked through without recursion, in one pass.
+     * To avoid keeping all directives in memory, use {@link Copy},
+     * which makes them lazily.
+     *
      * @param node Node to analyze
      * @return Collection of directives
      * @since 0.13
-     * @checkstyle CyclomaticComplexity (50 lines)
      */
-    @SuppressWarnings(
-        {
-            "PMD.CognitiveComplexity",
-            "PMD.InefficientEmptyStringCheck",
-            "PMD.ProhibitPublicStaticMethods",
-            "aibolit.P20_5"
-        }
-    )
+    @SuppressWarnings("PMD.ProhibitPublicStaticMethods")
     public static Iterable<Directive> copyOf(final Node node) {
-        final Directives dirs = new Directives();
-        if (node.hasAttributes()) {
-            final NamedNodeMap attrs = node.getAttributes();
-            final int len = attrs.getLength();
-            for (int idx = 0; idx < len; ++idx) {
-                final Attr attr = Attr.class.cast(attrs.item(idx));
-                dirs.attr(attr.getNodeName(), attr.getNodeValue());
-            }
-        }
-        if (node.hasChildNodes()) {
-            final NodeList children = node.getChildNodes();
-            final int len = children.getLength();
-            for (int idx = 0; idx < len; ++idx) {
-                final Node child = children.item(idx);
-                switch (child.getNodeType()) {
-                    case Node.ELEMENT_NODE:
-                        dirs.add(child.getNodeName())
-                            .append(Directives.copyOf(child))
-                            .up();
-                        break;
-                    case Node.ATTRIBUTE_NODE:
-                        dirs.attr(child.getNodeName(), child.getNodeValue());
-                        break;
-                    case Node.TEXT_NODE:
-                    case Node.CDATA_SECTION_NODE:
-                        if (len == 1) {
-                            dirs.set(child.getTextContent());
-                        } else if (!child.getTextContent().trim().isEmpty()) {
-                            throw new IllegalArgumentException(
-                                String.format(
-                                    "TEXT node #%d is not allowed together with other %d nodes in %s",
-                                    idx, len, child.getNodeName()
-                                )
-                            );
-                        }
-                        break;
-                    case Node.PROCESSING_INSTRUCTION_NODE:
-                        dirs.pi(child.getNodeName(), child.getNodeValue());
-                        break;
-                    case Node.ENTITY_NODE:
-                    case Node.COMMENT_NODE:
-                        break;
-                    default:
-                        throw new IllegalArgumentException(
-                            String.format(
-                                "Unsupported type %d of node %s",
-                                child.getNodeType(), child.getNodeName()
-                            )
-                        );
-                }
-            }
-        }
-        return dirs;
+        return new Directives(new Copy(node));
     }
 
     /**
      * Append all directives.
+     *
+     * <p>Directives of another {@link Directives} are not copied: what
+     * it contains at the moment of the call is shared by reference, in
+     * constant time. Directives added to it later are not appended.
+     * Any other {@link Iterable} is copied.
+     *
      * @param dirs Directives to append
      * @return This object
      * @since 0.11
      */
     public Directives append(final Iterable<Directive> dirs) {
-        this.all.addAll(Directives.toCollection(dirs));
+        if (dirs instanceof Directives) {
+            this.all.add(new Segment(Directives.class.cast(dirs).all.prefix()));
+        } else {
+            this.all.addAll(Directives.toCollection(dirs));
+        }
         return this;
     }
 
@@ -227,7 +240,7 @@ public final class Directives implements Iterable<Directive> {
      */
     public Directives add(final Object name) {
         try {
-            this.all.add(new AddDirective(name.toString()));
+            this.all.add(Flyweights.add(name.toString()));
         } catch (final XmlContentException ex) {
             throw new IllegalArgumentException(
                 String.format(
@@ -278,6 +291,56 @@ public final class Directives implements Iterable<Directive> {
         return this;
     }
 
+    /**
+     * Add a node for every record, with a child node for every column.
+     *
+     * <p>It is the same as {@link #add(Map)} for every record, wrapped
+     * into a node, but takes one directive instead of three per value.
+     * The records are not copied: they are taken one by one, while the
+     * directive is executed, and the values are taken from them by the
+     * functions. The cursor stays where it was. For example:
+     *
+     * <pre> new Directives()
+     *   .add("cars")
+     *   .rows(
+     *     "car", cars,
+     *     new ArrayMap&lt;String, Function&lt;Car, Object&gt;&gt;()
+     *       .with("make", Car::make)
+     *       .with("model", Car::model)
+     *   );
+     * </pre>
+     *
+     * <p>Values are converted to text with {@link Object#toString()},
+     * NULL values make empty nodes. If a value contains illegal XML
+     * characters, the directive will fail, when executed.
+     *
+     * @param name Name of the node of a record
+     * @param records Records, iterated every time the directive is
+     *  executed or written by {@link #writeTo(OutputStream)}, but not
+     *  when printed by {@link #toString()}, which shows only the columns,
+     *  in a form, which can't be parsed back
+     * @param columns Names of columns and functions, which take values of
+     *  them from a record, in the order of columns
+     * @param <T> Type of records
+     * @return This object
+     * @since 0.33
+     */
+    public <T> Directives rows(final Object name, final Iterable<T> records,
+        final Map<String, ? extends Function<? super T, ?>> columns) {
+        try {
+            this.all.add(new RowsDirective(name.toString(), columns, records));
+        } catch (final XmlContentException ex) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Failed to understand XML content, ROWS(%s, %s)",
+                    name, columns.keySet()
+                ),
+                ex
+            );
+        }
+        return this;
+    }
+
     /**
      * Add node if it's absent.
      * @param name Name of the node to add
@@ -286,7 +349,7 @@ public final class Directives implements Iterable<Directive> {
      */
     public Directives addIf(final Object name) {
         try {
-            this.all.add(new AddIfDirective(name.toString()));
+            this.all.add(Flyweights.addIf(name.toString()));
         } catch (final XmlContentException ex) {
             throw new IllegalArgumentException(
                 String.format(
@@ -305,7 +368,7 @@ public final class Directives implements Iterable<Directive> {
      * @since 0.5
      */
     public Directives remove() {
-        this.all.add(new RemoveDirective());
+        this.all.add(Flyweights.REMOVE);
         return this;
     }
 
@@ -327,7 +390,7 @@ public final class Directives implements Iterable<Directive> {
      */
     public Directives attr(final Object name, final Object value) {
         try {
-            this.all.add(new AttrDirective(name.toString(), value.toString()));
+            this.all.add(Flyweights.attr(name.toString(), value.toString()));
         } catch (final XmlContentException ex) {
             throw new IllegalArgumentException(
                 String.format(
@@ -443,7 +506,7 @@ public final class Directives implements Iterable<Directive> {
      * @since 0.5
      */
     public Directives up() {
-        this.all.add(new UpDirective());
+        this.all.add(Flyweights.UP);
         return this;
     }
 
@@ -485,7 +548,7 @@ public final class Directives implements Iterable<Directive> {
      * @since 0.16
      */
     public Directives push() {
-        this.all.add(new PushDirective());
+        this.all.add(Flyweights.PUSH);
         return this;
     }
 
@@ -495,7 +558,7 @@ public final class Directives implements Iterable<Directive> {
      * @since 0.16
      */
     public Directives pop() {
-        this.all.add(new PopDirective());
+        this.all.add(Flyweights.POP);
         return this;
     }
 
@@ -551,6 +614,19 @@ public final class Directives implements Iterable<Directive> {
         return this;
     }
 
+    /**
+     * Log with these directives.
+     * @param dirs Directives
+     * @return Log
+     */
+    private static Journal<Directive> journal(final Iterable<Directive> dirs) {
+        final Journal<Directive> jrnl = new Journal<>();
+        for (final Directive dir : dirs) {
+            jrnl.add(dir);
+        }
+        return jrnl;
+    }
+
     private static <T> Collection<T> toCollection(final Iterable<T> itr) {
         final Collection<T> col = new ArrayList<>(0);
         for (final T item : itr) {
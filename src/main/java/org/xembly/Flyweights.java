@@ -0,0 +1,231 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared instances of directives.
+ *
+ * <p>Directives without arguments have no state at all, that's why
+ * one instance of each is enough. Directives, which only have a name,
+ * like {@code ADD} and {@code ADDIF}, and names of attributes are
+ * repeated many times in a typical program, that's why they are taken
+ * from small pools. A pool is a fixed-size table, where a new item
+ * replaces an old one with the same hash slot: it never grows and
+ * never locks, at the price of making a new item once in a while.
+ *
+ * @since 0.33
+ */
+final class Flyweights {
+
+    /**
+     * UP.
+     */
+    static final Directive UP = new UpDirective();
+
+    /**
+     * REMOVE.
+     */
+    static final Directive REMOVE = new RemoveDirective();
+
+    /**
+     * PUSH.
+     */
+    static final Directive PUSH = new PushDirective();
+
+    /**
+     * POP.
+     */
+    static final Directive POP = new PopDirective();
+
+    /**
+     * Pool of ADD directives.
+     */
+    private static final Flyweights.Pool<Directive> ADDS =
+        new Flyweights.Pool<>(AddDirective::new);
+
+    /**
+     * Pool of ADDIF directives.
+     */
+    private static final Flyweights.Pool<Directive> ADDIFS =
+        new Flyweights.Pool<>(AddIfDirective::new);
+
+    /**
+     * Pool of names of attributes.
+     */
+    private static final Flyweights.Pool<Arg> NAMES =
+        new Flyweights.Pool<>(Arg::new);
+
+    /**
+     * Pool of XPath queries.
+     */
+    private static final Flyweights.Pool<Query> QUERIES =
+        new Flyweights.Pool<>(key -> new Query(key.toString()));
+
+    /**
+     * Utility class.
+     */
+    private Flyweights() {
+        // intentionally empty
+    }
+
+    /**
+     * ADD directive.
+     * @param name Name of the node
+     * @return Directive, maybe shared
+     * @throws XmlContentException If the name is not valid
+     */
+    static Directive add(final CharSequence name) throws XmlContentException {
+        return Flyweights.ADDS.get(name);
+    }
+
+    /**
+     * ADDIF directive.
+     * @param name Name of the node
+     * @return Directive, maybe shared
+     * @throws XmlContentException If the name is not valid
+     */
+    static Directive addIf(final CharSequence name) throws XmlContentException {
+        return Flyweights.ADDIFS.get(name);
+    }
+
+    /**
+     * ATTR directive.
+     * @param name Name of the attribute
+     * @param value Value of the attribute
+     * @return Directive with a shared name
+     * @throws XmlContentException If the name or the value is not valid
+     */
+    static Directive attr(final CharSequence name, final CharSequence value)
+        throws XmlContentException {
+        return new AttrDirective(Flyweights.NAMES.get(name), value);
+    }
+
+    /**
+     * XPath query.
+     * @param expr XPath expression
+     * @return Query, maybe shared
+     */
+    static Query query(final String expr) {
+        try {
+            return Flyweights.QUERIES.get(expr);
+        } catch (final XmlContentException ex) {
+            throw new IllegalStateException(
+                String.format("Failed to make query of \"%s\"", expr),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Maker of items.
+     * @param <T> Type of items
+     * @since 0.33
+     */
+    @FunctionalInterface
+    private interface Make<T> {
+        /**
+         * Make an item.
+         * @param key The key
+         * @return The item
+         * @throws XmlContentException If the key is not valid
+         */
+        T make(CharSequence key) throws XmlContentException;
+    }
+
+    /**
+     * Fixed-size pool of items, by their keys.
+     *
+     * <p>The class is thread-safe.
+     *
+     * @param <T> Type of items
+     * @since 0.33
+     */
+    private static final class Pool<T> {
+
+        /**
+         * Number of slots, a power of two.
+         */
+        private static final int SIZE = 1024;
+
+        /**
+         * Longer keys are not pooled.
+         */
+        private static final int LONGEST = 64;
+
+        /**
+         * Maker of items.
+         */
+        private final Flyweights.Make<T> maker;
+
+        /**
+         * Slots.
+         */
+        private final AtomicReferenceArray<Flyweights.Entry<T>> slots;
+
+        /**
+         * Ctor.
+         * @param mkr Maker of items
+         */
+        Pool(final Flyweights.Make<T> mkr) {
+            this.maker = mkr;
+            this.slots = new AtomicReferenceArray<>(Flyweights.Pool.SIZE);
+        }
+
+        /**
+         * Get an item, either pooled or new.
+         * @param key The key
+         * @return The item
+         * @throws XmlContentException If the key is not valid
+         */
+        T get(final CharSequence key) throws XmlContentException {
+            final T item;
+            if (key.length() > Flyweights.Pool.LONGEST) {
+                item = this.maker.make(key);
+            } else {
+                final String str = key.toString();
+                final int hash = str.hashCode();
+                final int idx = (hash ^ hash >>> 16) & Flyweights.Pool.SIZE - 1;
+                final Flyweights.Entry<T> entry = this.slots.get(idx);
+                if (entry != null && entry.key.equals(str)) {
+                    item = entry.item;
+                } else {
+                    item = this.maker.make(str);
+                    this.slots.set(idx, new Flyweights.Entry<>(str, item));
+                }
+            }
+            return item;
+        }
+    }
+
+    /**
+     * Item of a pool with its key.
+     * @param <T> Type of item
+     * @since 0.33
+     */
+    private static final class Entry<T> {
+
+        /**
+         * The key.
+         */
+        private final String key;
+
+        /**
+         * The item.
+         */
+        private final T item;
+
+        /**
+         * Ctor.
+         * @param str The key
+         * @param itm The item
+         */
+        Entry(final String str, final T itm) {
+            this.key = str;
+            this.item = itm;
+        }
+    }
+}
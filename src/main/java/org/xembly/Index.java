@@ -0,0 +1,284 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Index of elements of a document, by names and by values of
+ * some attributes.
+ *
+ * <p>It is made by {@link Xembler#indexed(String...)} for the time
+ * of one application of directives and is given to directives in the
+ * {@link Session}. It is built only when it is needed for the first
+ * time, by {@code XPATH} with a path like {@code //order[@id='123']},
+ * see {@link Path}, and then the directives, which modify the document,
+ * keep it up to date, so that such paths are found without walking
+ * the document. A directive, which is not built-in, may modify the
+ * document in any way, that's why the index is dropped before it
+ * and built again when it is needed next time.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @since 0.33
+ */
+final class Index {
+
+    /**
+     * How many nodes to find, at most, since otherwise it's
+     * cheaper to walk the document than to sort them.
+     */
+    private static final int LIMIT = 64;
+
+    /**
+     * Names of attributes to index.
+     */
+    private final Set<String> attrs;
+
+    /**
+     * Elements by local names, or NULL if not built.
+     */
+    private Map<String, Set<Node>> names;
+
+    /**
+     * Elements by names of attributes and their values.
+     */
+    private Map<String, Map<String, Set<Node>>> values;
+
+    /**
+     * The document.
+     */
+    private final Node doc;
+
+    /**
+     * Ctor.
+     * @param node The document or any node in it
+     * @param names Names of attributes to index
+     */
+    Index(final Node node, final String... names) {
+        Node owner = node.getOwnerDocument();
+        if (owner == null) {
+            owner = node;
+        }
+        this.doc = owner;
+        this.attrs = new HashSet<>(Arrays.asList(names));
+    }
+
+    /**
+     * Forget everything, in order to build it again when it is needed.
+     */
+    void clear() {
+        this.names = null;
+        this.values = null;
+    }
+
+    /**
+     * Find elements, which may match.
+     * @param start The node, where the search starts
+     * @param name Local name of elements or {@code *}
+     * @param attr Name of attribute or NULL
+     * @param value Value of attribute or NULL
+     * @return Elements, in any order, or NULL, if the start is not the
+     *  document of the index or it's cheaper to walk the document
+     */
+    Collection<Node> find(final Node start, final String name,
+        final String attr, final String value) {
+        Collection<Node> found = null;
+        if (start == this.doc) {
+            if (this.names == null) {
+                this.build();
+            }
+            if (attr != null && this.attrs.contains(attr)) {
+                found = this.values.get(attr).getOrDefault(
+                    value, Collections.emptySet()
+                );
+            } else if (!"*".equals(name)) {
+                found = this.names.getOrDefault(name, Collections.emptySet());
+            }
+        }
+        if (found != null && found.size() > Index.LIMIT) {
+            found = null;
+        }
+        return found;
+    }
+
+    /**
+     * The node was added to the document.
+     * @param node The node, with all its children
+     */
+    void added(final Node node) {
+        if (this.names != null) {
+            this.walk(node, true);
+        }
+    }
+
+    /**
+     * The node is going to be removed from the document.
+     * @param node The node, with all its children
+     */
+    void removing(final Node node) {
+        if (this.names != null) {
+            this.walk(node, false);
+        }
+    }
+
+    /**
+     * The text of the node is going to be set, that's why all its
+     * children are going to be removed, unless it is the document,
+     * which ignores its text, or it is an attribute, whose value
+     * is going to change.
+     * @param node The node
+     */
+    void emptying(final Node node) {
+        if (this.names != null && node.getNodeType() == Node.ATTRIBUTE_NODE) {
+            final Attr attr = Attr.class.cast(node);
+            this.changing(attr.getOwnerElement(), attr.getName());
+        } else if (this.names != null
+            && node.getNodeType() != Node.DOCUMENT_NODE) {
+            for (Node child = node.getFirstChild(); child != null;
+                child = child.getNextSibling()) {
+                this.walk(child, false);
+            }
+        }
+    }
+
+    /**
+     * The text of the node was set.
+     * @param node The node
+     */
+    void filled(final Node node) {
+        if (this.names != null && node.getNodeType() == Node.ATTRIBUTE_NODE) {
+            final Attr attr = Attr.class.cast(node);
+            this.changed(attr.getOwnerElement(), attr.getName());
+        }
+    }
+
+    /**
+     * The attribute of the element is going to change or be removed.
+     * @param element The element
+     * @param attr Name of the attribute
+     */
+    void changing(final Element element, final String attr) {
+        if (this.names != null && this.attrs.contains(attr)
+            && element.hasAttribute(attr)) {
+            Index.nodes(this.values.get(attr), element.getAttribute(attr))
+                .remove(element);
+        }
+    }
+
+    /**
+     * The attribute of the element was changed.
+     * @param element The element
+     * @param attr Name of the attribute
+     */
+    void changed(final Element element, final String attr) {
+        if (this.names != null && this.attrs.contains(attr)
+            && element.hasAttribute(attr)) {
+            Index.nodes(this.values.get(attr), element.getAttribute(attr))
+                .add(element);
+        }
+    }
+
+    /**
+     * Build it from the document.
+     */
+    private void build() {
+        this.names = new HashMap<>(0);
+        this.values = new HashMap<>(this.attrs.size());
+        for (final String attr : this.attrs) {
+            this.values.put(attr, new HashMap<>(0));
+        }
+        for (Node child = this.doc.getFirstChild(); child != null;
+            child = child.getNextSibling()) {
+            this.walk(child, true);
+        }
+    }
+
+    /**
+     * Add or remove the node and all elements inside it.
+     * @param top The node
+     * @param add TRUE to add, FALSE to remove
+     */
+    private void walk(final Node top, final boolean add) {
+        Node node = top;
+        while (node != null) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                this.index(Element.class.cast(node), add);
+            }
+            Node next = node.getFirstChild();
+            while (next == null && node != top) {
+                next = node.getNextSibling();
+                if (next == null) {
+                    node = node.getParentNode();
+                }
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Add or remove the element.
+     * @param element The element
+     * @param add TRUE to add, FALSE to remove
+     */
+    private void index(final Element element, final boolean add) {
+        final Set<Node> named = Index.nodes(this.names, Index.local(element));
+        if (add) {
+            named.add(element);
+        } else {
+            named.remove(element);
+        }
+        for (final Map.Entry<String, Map<String, Set<Node>>> entry
+            : this.values.entrySet()) {
+            if (element.hasAttribute(entry.getKey())) {
+                final Set<Node> valued = Index.nodes(
+                    entry.getValue(), element.getAttribute(entry.getKey())
+                );
+                if (add) {
+                    valued.add(element);
+                } else {
+                    valued.remove(element);
+                }
+            }
+        }
+    }
+
+    /**
+     * Local name of the element, the same way {@link Path} finds it.
+     * @param element The element
+     * @return Local name
+     */
+    private static String local(final Element element) {
+        String local = element.getLocalName();
+        if (local == null) {
+            local = element.getNodeName();
+            local = local.substring(local.lastIndexOf(':') + 1);
+        }
+        return local;
+    }
+
+    /**
+     * Set of nodes by key, which is made if it's absent.
+     * @param map The map
+     * @param key The key
+     * @return Set of nodes
+     */
+    private static Set<Node> nodes(final Map<String, Set<Node>> map,
+        final String key) {
+        return map.computeIfAbsent(
+            key, any -> Collections.newSetFromMap(new IdentityHashMap<>(1))
+        );
+    }
+}
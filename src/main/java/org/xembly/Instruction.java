@@ -0,0 +1,25 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+/**
+ * Built-in directive, which can be encoded as an opcode with arguments.
+ *
+ * @since 0.33
+ */
+interface Instruction {
+
+    /**
+     * Opcode of it, one of {@link Opcodes}.
+     * @return Opcode
+     */
+    int opcode();
+
+    /**
+     * Raw arguments, exactly as many as {@link Opcodes#arity(int)} says.
+     * @return Arguments
+     */
+    String[] args();
+}
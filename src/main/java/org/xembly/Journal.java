@@ -0,0 +1,248 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only log of items, without locks.
+ *
+ * <p>Items are stored in chunks, each next one twice as big as the
+ * previous one, so the log grows without copying what is already
+ * in it. An appender reserves a contiguous range of slots with one
+ * atomic increment and then fills them, that's why items appended
+ * together by {@link #addAll(Collection)} stay together, no matter
+ * how many threads are appending.
+ *
+ * <p>The log keeps up to {@link #CAPACITY} items, which is a few less
+ * than {@link Integer#MAX_VALUE}, and fails to reserve more.
+ *
+ * <p>Iterators are wait-free snapshots: they see items up to the first
+ * slot, which is reserved but not filled yet, and never see anything
+ * appended after they reached the end.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @param <T> Type of items
+ * @since 0.33
+ */
+final class Journal<T> implements Iterable<T> {
+
+    /**
+     * Size of the first chunk.
+     */
+    private static final int BASE = 16;
+
+    /**
+     * Max number of chunks, so that the size of the last one, which
+     * is {@code BASE << (CHUNKS - 1)}, still fits into an integer.
+     */
+    private static final int CHUNKS = 27;
+
+    /**
+     * Max number of items in all chunks together, which is a few less
+     * than {@link Integer#MAX_VALUE}.
+     */
+    static final long CAPACITY = (long) Journal.BASE * ((1L << Journal.CHUNKS) - 1L);
+
+    /**
+     * Chunks, created on demand.
+     */
+    private final AtomicReferenceArray<AtomicReferenceArray<T>> chunks;
+
+    /**
+     * Number of reserved slots.
+     */
+    private final AtomicInteger reserved;
+
+    /**
+     * Ctor.
+     */
+    Journal() {
+        this(0);
+    }
+
+    /**
+     * Ctor.
+     * @param used How many slots are reserved already, which are never
+     *  filled and hide everything after them from iterators
+     */
+    Journal(final int used) {
+        this.chunks = new AtomicReferenceArray<>(Journal.CHUNKS);
+        this.reserved = new AtomicInteger(used);
+    }
+
+    /**
+     * Append one item.
+     * @param item The item
+     */
+    void add(final T item) {
+        this.put(this.reserve(1), item);
+    }
+
+    /**
+     * Append all items, keeping them together.
+     * @param items The items, which must not change while being added
+     */
+    void addAll(final Collection<? extends T> items) {
+        int idx = this.reserve(items.size());
+        for (final T item : items) {
+            this.put(idx, item);
+            ++idx;
+        }
+    }
+
+    /**
+     * Items appended so far, which will never change.
+     *
+     * <p>It takes constant time and copies nothing, since the log is
+     * append-only and its prefix stays as it is forever.
+     *
+     * @return Frozen prefix of the log
+     */
+    Iterable<T> prefix() {
+        final int limit = this.reserved.get();
+        return () -> new Journal.Snapshot<>(this, limit);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Journal.Snapshot<>(this, this.reserved.get());
+    }
+
+    /**
+     * Reserve slots.
+     * @param count How many
+     * @return Index of the first reserved slot
+     */
+    private int reserve(final int count) {
+        final int idx = this.reserved.getAndAdd(count);
+        if (idx < 0 || (long) idx + count > Journal.CAPACITY) {
+            throw new IllegalStateException(
+                String.format(
+                    "The journal can't keep more than %d items, %d more are too many",
+                    Journal.CAPACITY, count
+                )
+            );
+        }
+        return idx;
+    }
+
+    /**
+     * Put item into the slot.
+     * @param idx Index of the slot
+     * @param item The item
+     */
+    private void put(final int idx, final T item) {
+        final int chunk = Journal.chunk(idx);
+        AtomicReferenceArray<T> slots = this.chunks.get(chunk);
+        if (slots == null) {
+            this.chunks.compareAndSet(
+                chunk, null, new AtomicReferenceArray<>(Journal.BASE << chunk)
+            );
+            slots = this.chunks.get(chunk);
+        }
+        slots.set(Journal.offset(idx, chunk), item);
+    }
+
+    /**
+     * Get item from the slot.
+     * @param idx Index of the slot
+     * @return The item or NULL if the slot is not filled yet
+     */
+    private T get(final int idx) {
+        final int chunk = Journal.chunk(idx);
+        final AtomicReferenceArray<T> slots = this.chunks.get(chunk);
+        T item = null;
+        if (slots != null) {
+            item = slots.get(Journal.offset(idx, chunk));
+        }
+        return item;
+    }
+
+    /**
+     * Number of the chunk, where the slot is.
+     * @param idx Index of the slot
+     * @return Number of the chunk
+     */
+    private static int chunk(final int idx) {
+        return 31 - Integer.numberOfLeadingZeros(idx / Journal.BASE + 1);
+    }
+
+    /**
+     * Position of the slot inside its chunk.
+     * @param idx Index of the slot
+     * @param chunk Number of the chunk
+     * @return Position inside the chunk
+     */
+    private static int offset(final int idx, final int chunk) {
+        return idx - Journal.BASE * ((1 << chunk) - 1);
+    }
+
+    /**
+     * Snapshot iterator.
+     * @param <T> Type of items
+     * @since 0.33
+     */
+    private static final class Snapshot<T> implements Iterator<T> {
+
+        /**
+         * The journal.
+         */
+        private final Journal<T> journal;
+
+        /**
+         * Number of slots reserved when the snapshot was taken.
+         */
+        private final int limit;
+
+        /**
+         * Index of the next slot.
+         */
+        private int idx;
+
+        /**
+         * The next item or NULL if it's not fetched yet.
+         */
+        private T ahead;
+
+        /**
+         * Ctor.
+         * @param jrnl The journal
+         * @param max Number of reserved slots
+         */
+        Snapshot(final Journal<T> jrnl, final int max) {
+            this.journal = jrnl;
+            this.limit = max;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.ahead == null && this.idx < this.limit) {
+                this.ahead = this.journal.get(this.idx);
+                if (this.ahead == null) {
+                    this.idx = this.limit;
+                } else {
+                    ++this.idx;
+                }
+            }
+            return this.ahead != null;
+        }
+
+        @Override
+        public T next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more items in the journal");
+            }
+            final T item = this.ahead;
+            this.ahead = null;
+            return item;
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Single-pass lexer of Xembly script.
+ *
+ * <p>It walks the text char by char exactly once, tracking the quote
+ * state together with the line and the column of the current position,
+ * and produces directives one by one, as they are recognized. Arguments
+ * without XML symbols are copied from the text only once; arguments
+ * with them are un-escaped straight from the text.
+ *
+ * <p>When {@link Metrics} are enabled, the lexer counts the time it spends
+ * on directives and reports it, together with the number of chars,
+ * as soon as the text is over, no matter who parses it: {@link Verbs},
+ * {@link Script}, {@link Template} or {@link Program}.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @since 0.33
+ */
+@SuppressWarnings("PMD.GodClass")
+final class Lexer implements Iterator<Directive> {
+
+    /**
+     * Chars to parse.
+     */
+    private final Chars text;
+
+    /**
+     * Current position in the text.
+     */
+    private int pos;
+
+    /**
+     * Current line, starting from one.
+     */
+    private int line;
+
+    /**
+     * Current column, starting from one.
+     */
+    private int column;
+
+    /**
+     * Are placeholders allowed?
+     */
+    private final boolean template;
+
+    /**
+     * Bits of the arguments of the current directive, which are placeholders.
+     */
+    private int holders;
+
+    /**
+     * Nanoseconds of parsing so far, if metrics are enabled.
+     */
+    private long nanos;
+
+    /**
+     * Are metrics reported already?
+     */
+    private boolean reported;
+
+    /**
+     * Ctor.
+     * @param txt Text to parse
+     */
+    Lexer(final String txt) {
+        this(new Chars.Sequence(txt));
+    }
+
+    /**
+     * Ctor.
+     * @param chars Chars to parse
+     */
+    Lexer(final Chars chars) {
+        this(chars, false);
+    }
+
+    /**
+     * Ctor.
+     * @param chars Chars to parse
+     * @param placeholders Are placeholders, like {@code $name}, allowed?
+     */
+    Lexer(final Chars chars, final boolean placeholders) {
+        this.text = chars;
+        this.template = placeholders;
+        this.line = 1;
+        this.column = 1;
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.empty();
+        final boolean more = this.text.has(this.pos);
+        if (!more && Metrics.ENABLED && !this.reported) {
+            this.reported = true;
+            Metrics.GLOBAL.parsed(this.pos, this.nanos);
+        }
+        return more;
+    }
+
+    @Override
+    public Directive next() {
+        final Template.Step step = this.step();
+        final long start = Metrics.clock();
+        try {
+            return step.bind(Collections.emptyMap());
+        } catch (final XmlContentException ex) {
+            throw Lexer.failure(ex);
+        } finally {
+            this.nanos += Metrics.clock() - start;
+        }
+    }
+
+    /**
+     * Parse the next directive, without binding its placeholders.
+     * @return Step of the template
+     */
+    Template.Step step() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException("There are no more directives");
+        }
+        final long start = Metrics.clock();
+        try {
+            return this.statement();
+        } catch (final XmlContentException | ParsingException ex) {
+            throw Lexer.failure(ex);
+        } finally {
+            this.nanos += Metrics.clock() - start;
+        }
+    }
+
+    /**
+     * Parse one directive, together with its trailing semicolon.
+     * @return Step, which makes the directive
+     * @throws XmlContentException If arguments are not valid XML content
+     * @throws ParsingException If the syntax is broken
+     */
+    private Template.Step statement() throws XmlContentException, ParsingException {
+        this.text.release(this.pos);
+        this.holders = 0;
+        final int start = this.pos;
+        while (this.text.has(this.pos)
+            && !Lexer.opening(this.text.at(this.pos))
+            && this.text.at(this.pos) != ';') {
+            this.advance();
+        }
+        final String verb = this.verb(start);
+        final int code = Opcodes.find(verb);
+        final CharSequence[] args;
+        if (!this.text.has(this.pos) || this.text.at(this.pos) == ';') {
+            if (code == Opcodes.END || Opcodes.arity(code) != 0) {
+                throw this.error(
+                    String.format("Unknown command or missing argument \"%s\"", verb)
+                );
+            }
+            args = new CharSequence[0];
+        } else if (code != Opcodes.END && Opcodes.arity(code) == 1) {
+            args = new CharSequence[] {this.argument(0)};
+        } else if (code != Opcodes.END && Opcodes.arity(code) == 2) {
+            final CharSequence first = this.argument(0);
+            this.skip();
+            if (!this.text.has(this.pos) || this.text.at(this.pos) == ';') {
+                throw this.error(
+                    String.format("Second argument of %s is expected", verb)
+                );
+            }
+            if (this.text.at(this.pos) != ',') {
+                throw this.error("Comma after first argument is expected");
+            }
+            this.advance();
+            this.skip();
+            if (!this.text.has(this.pos) || this.text.at(this.pos) == ';') {
+                throw this.error("Unexpected semicolon after comma");
+            }
+            if (!Lexer.opening(this.text.at(this.pos))) {
+                throw this.error("Single or double quote is expected after comma");
+            }
+            args = new CharSequence[] {first, this.argument(1)};
+        } else {
+            throw this.error(String.format("Unknown command \"%s\"", verb));
+        }
+        this.skip();
+        if (this.text.has(this.pos)) {
+            if (this.text.at(this.pos) != ';') {
+                throw this.error("Unexpected symbols after command arguments");
+            }
+            this.advance();
+        }
+        final Template.Step step;
+        final int mask = this.holders;
+        if (mask == 0) {
+            final Directive dir = Opcodes.make(code, args);
+            step = values -> dir;
+        } else {
+            step = values -> Opcodes.make(code, Lexer.bound(args, mask, values));
+        }
+        return step;
+    }
+
+    /**
+     * Take the name of the command, which ends at the current position,
+     * dropping its optional "NN:" prefix.
+     * @param start Where the command starts
+     * @return Name of the command
+     */
+    private String verb(final int start) {
+        int left = start;
+        int right = this.pos;
+        for (int idx = left; idx < right; ++idx) {
+            if (this.text.at(idx) == ':') {
+                left = idx + 1;
+                break;
+            }
+        }
+        while (left < right && Character.isWhitespace(this.text.at(left))) {
+            ++left;
+        }
+        while (right > left && Character.isWhitespace(this.text.at(right - 1))) {
+            --right;
+        }
+        return this.text.region(left, right).toString();
+    }
+
+    /**
+     * Read one argument, starting at the current position.
+     * @param idx Index of the argument in the directive
+     * @return Un-escaped value of it or the name of the placeholder
+     * @throws XmlContentException If it is not a valid XML content
+     * @throws ParsingException If the closing quote is missing
+     */
+    private CharSequence argument(final int idx)
+        throws XmlContentException, ParsingException {
+        final CharSequence value;
+        if (this.text.at(this.pos) == '$') {
+            value = this.placeholder();
+            this.holders |= 1 << idx;
+        } else {
+            value = this.quoted();
+        }
+        return value;
+    }
+
+    /**
+     * Read the name of a placeholder, like {@code $name}.
+     * @return Name of the placeholder
+     * @throws ParsingException If placeholders are not allowed or the name is empty
+     */
+    private String placeholder() throws ParsingException {
+        if (!this.template) {
+            throw this.error("Placeholders are allowed only in templates");
+        }
+        this.advance();
+        final int start = this.pos;
+        while (this.text.has(this.pos) && Lexer.naming(this.text.at(this.pos))) {
+            this.advance();
+        }
+        if (start == this.pos) {
+            throw this.error("Name of the placeholder is expected after $");
+        }
+        return this.text.region(start, this.pos).toString();
+    }
+
+    /**
+     * Read one quoted argument, starting at the current position.
+     * @return Un-escaped value of it
+     * @throws XmlContentException If it is not a valid XML content
+     * @throws ParsingException If the closing quote is missing
+     */
+    private CharSequence quoted() throws XmlContentException, ParsingException {
+        final int line = this.line;
+        final int col = this.column;
+        final char quote = this.text.at(this.pos);
+        this.advance();
+        final int start = this.pos;
+        boolean escaped = false;
+        while (this.text.has(this.pos) && this.text.at(this.pos) != quote) {
+            if (this.text.at(this.pos) == '&') {
+                escaped = true;
+            }
+            this.advance();
+        }
+        if (!this.text.has(this.pos)) {
+            throw new ParsingException(
+                String.format(
+                    "Closing quote is missing for the argument at line %d, column %d",
+                    line, col
+                )
+            );
+        }
+        final CharSequence value;
+        if (escaped) {
+            final CharSequence region = this.text.region(start, this.pos);
+            value = Arg.unescape(region, 0, region.length());
+        } else {
+            value = this.text.slice(start, this.pos);
+        }
+        this.advance();
+        return value;
+    }
+
+    /**
+     * Skip all white spaces.
+     */
+    private void skip() {
+        while (this.text.has(this.pos)
+            && Character.isWhitespace(this.text.at(this.pos))) {
+            this.advance();
+        }
+    }
+
+    /**
+     * Skip white spaces together with empty statements, like the second
+     * one in {@code ADD 'a';;}, which have nothing but a semicolon.
+     */
+    private void empty() {
+        this.skip();
+        while (this.text.has(this.pos) && this.text.at(this.pos) == ';') {
+            this.advance();
+            this.skip();
+        }
+    }
+
+    /**
+     * Move one char forward.
+     */
+    private void advance() {
+        if (this.text.at(this.pos) == '\n') {
+            ++this.line;
+            this.column = 1;
+        } else {
+            ++this.column;
+        }
+        ++this.pos;
+    }
+
+    /**
+     * Make an exception, pointing to the current position.
+     * @param msg Message
+     * @return Exception
+     */
+    private ParsingException error(final String msg) {
+        return new ParsingException(
+            String.format("%s at line %d, column %d", msg, this.line, this.column)
+        );
+    }
+
+    /**
+     * Replace placeholders with their values.
+     * @param args Arguments, some of which are names of placeholders
+     * @param mask Bits of the arguments, which are placeholders
+     * @param values Values of placeholders
+     * @return Arguments with values
+     */
+    private static CharSequence[] bound(final CharSequence[] args, final int mask,
+        final Map<String, ?> values) {
+        final CharSequence[] vals = args.clone();
+        for (int idx = 0; idx < vals.length; ++idx) {
+            if ((mask & 1 << idx) != 0) {
+                final Object val = values.get(args[idx].toString());
+                if (val == null) {
+                    throw new IllegalArgumentException(
+                        String.format("Placeholder $%s is not bound", args[idx])
+                    );
+                }
+                vals[idx] = val.toString();
+            }
+        }
+        return vals;
+    }
+
+    /**
+     * Wrap the exception.
+     * @param cause The cause
+     * @return Syntax exception
+     */
+    private static SyntaxException failure(final Exception cause) {
+        return new SyntaxException(
+            String.format(
+                "Parsing failed as %s: \"%s\"",
+                cause.getClass().getCanonicalName(),
+                cause.getLocalizedMessage()
+            ),
+            cause
+        );
+    }
+
+    /**
+     * Is it a quote?
+     * @param chr Char
+     * @return TRUE if it's a single or a double quote
+     */
+    private static boolean quote(final char chr) {
+        return chr == '\'' || chr == '"';
+    }
+
+    /**
+     * Is it an opening of an argument?
+     * @param chr Char
+     * @return TRUE if it's a quote or a dollar sign
+     */
+    private static boolean opening(final char chr) {
+        return Lexer.quote(chr) || chr == '$';
+    }
+
+    /**
+     * Can it be a part of the name of a placeholder?
+     * @param chr Char
+     * @return TRUE if it can
+     */
+    private static boolean naming(final char chr) {
+        return Character.isLetterOrDigit(chr) || chr == '_' || chr == '-' || chr == '.';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+/**
+ * Listener of directives, executed by {@link Xembler}.
+ *
+ * <p>It is called after every directive, which succeeded, for example,
+ * in order to find out which of them are slow, see {@link Profiler}:
+ *
+ * <pre> Profiler profiler = new Profiler();
+ * new Xembler(
+ *   dirs, new Transformers.Document(), new Stacks.Default(), profiler
+ * ).apply(dom);
+ * System.out.println(profiler.report());</pre>
+ *
+ * <p>If {@link Listener.Silent} is used, which is the default,
+ * {@link Xembler} doesn't even measure time.
+ *
+ * @since 0.33
+ */
+@FunctionalInterface
+public interface Listener {
+
+    /**
+     * The directive was executed.
+     * @param pos Position of the directive, starting from one
+     * @param verb Verb of it, like "XPATH"
+     * @param dir The directive
+     * @param before How many nodes were in the cursor before it
+     * @param after How many nodes are in the cursor after it
+     * @param nanos How long it took, in nanoseconds
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    void executed(int pos, String verb, Directive dir, int before, int after,
+        long nanos);
+
+    /**
+     * Listener, which doesn't listen.
+     * @since 0.33
+     */
+    final class Silent implements Listener {
+
+        @Override
+        public void executed(final int pos, final String verb,
+            final Directive dir, final int before, final int after,
+            final long nanos) {
+            // nothing to do
+        }
+    }
+}
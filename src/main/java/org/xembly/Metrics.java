@@ -0,0 +1,229 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of live counters.
+ *
+ * <p>The counters are {@link LongAdder}s, which stay cheap when many
+ * threads increment them at the same time. Parsing, execution and
+ * printing call the {@link #GLOBAL} registry only if {@link #ENABLED},
+ * which is a constant, that's why disabled metrics cost nothing.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @since 0.33
+ */
+final class Metrics implements MetricsMXBean {
+
+    /**
+     * Are metrics collected?
+     */
+    static final boolean ENABLED = Boolean.getBoolean("org.xembly.metrics");
+
+    /**
+     * The registry of the library.
+     */
+    static final Metrics GLOBAL = new Metrics();
+
+    /**
+     * Name of the MBean.
+     */
+    static final String NAME = "org.xembly:type=Metrics";
+
+    /**
+     * Scripts parsed.
+     */
+    private final LongAdder programs = new LongAdder();
+
+    /**
+     * Characters parsed.
+     */
+    private final LongAdder chars = new LongAdder();
+
+    /**
+     * Nanoseconds of parsing.
+     */
+    private final LongAdder parsing = new LongAdder();
+
+    /**
+     * Directives executed, by opcodes, with custom ones at zero.
+     */
+    private final LongAdder[] verbs;
+
+    /**
+     * XPath evaluations.
+     */
+    private final LongAdder xpaths = new LongAdder();
+
+    /**
+     * Documents printed.
+     */
+    private final LongAdder documents = new LongAdder();
+
+    /**
+     * Nanoseconds of printing.
+     */
+    private final LongAdder printing = new LongAdder();
+
+    /**
+     * Characters printed.
+     */
+    private final LongAdder output = new LongAdder();
+
+    static {
+        if (Metrics.ENABLED) {
+            Metrics.GLOBAL.register(ManagementFactory.getPlatformMBeanServer());
+        }
+    }
+
+    /**
+     * Ctor.
+     */
+    Metrics() {
+        this.verbs = new LongAdder[Opcodes.ROWS + 1];
+        for (int code = 0; code < this.verbs.length; ++code) {
+            this.verbs[code] = new LongAdder();
+        }
+    }
+
+    @Override
+    public long getProgramsParsed() {
+        return this.programs.sum();
+    }
+
+    @Override
+    public long getParsedChars() {
+        return this.chars.sum();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return this.parsing.sum();
+    }
+
+    @Override
+    public long getDirectivesExecuted() {
+        long total = 0L;
+        for (final LongAdder verb : this.verbs) {
+            total += verb.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getDirectivesPerVerb() {
+        final Map<String, Long> map = new LinkedHashMap<>(this.verbs.length);
+        for (int code = 1; code < this.verbs.length; ++code) {
+            map.put(Opcodes.name(code), this.verbs[code].sum());
+        }
+        map.put("CUSTOM", this.verbs[0].sum());
+        return map;
+    }
+
+    @Override
+    public long getXpathEvaluations() {
+        return this.xpaths.sum();
+    }
+
+    @Override
+    public long getSerializations() {
+        return this.documents.sum();
+    }
+
+    @Override
+    public long getSerializationNanos() {
+        return this.printing.sum();
+    }
+
+    @Override
+    public long getSerializedChars() {
+        return this.output.sum();
+    }
+
+    /**
+     * Current time, in order to measure how long something takes, but
+     * only if metrics are enabled.
+     * @return Nanoseconds or zero, if metrics are disabled
+     */
+    static long clock() {
+        long now = 0L;
+        if (Metrics.ENABLED) {
+            now = System.nanoTime();
+        }
+        return now;
+    }
+
+    /**
+     * A script was parsed.
+     * @param length How many characters it has
+     * @param nanos How long it took
+     */
+    void parsed(final int length, final long nanos) {
+        this.programs.increment();
+        this.chars.add(length);
+        this.parsing.add(nanos);
+    }
+
+    /**
+     * A directive was executed.
+     * @param dir The directive
+     */
+    void executed(final Directive dir) {
+        int code = 0;
+        if (dir instanceof Instruction) {
+            code = Instruction.class.cast(dir).opcode();
+        }
+        this.verbs[code].increment();
+    }
+
+    /**
+     * An XPath expression was evaluated.
+     */
+    void evaluated() {
+        this.xpaths.increment();
+    }
+
+    /**
+     * A document was printed.
+     * @param length How many characters it has
+     * @param nanos How long it took
+     */
+    void printed(final int length, final long nanos) {
+        this.documents.increment();
+        this.output.add(length);
+        this.printing.add(nanos);
+    }
+
+    /**
+     * Register it as an MBean.
+     *
+     * <p>If there is an MBean with the same name already, for example
+     * registered by the library in another class loader, it stays.
+     *
+     * @param server MBean server
+     */
+    void register(final MBeanServer server) {
+        try {
+            final ObjectName name = new ObjectName(Metrics.NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (final JMException ex) {
+            throw new IllegalStateException(
+                String.format("Failed to register MBean %s", Metrics.NAME),
+                ex
+            );
+        }
+    }
+}
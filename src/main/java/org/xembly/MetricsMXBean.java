@@ -0,0 +1,77 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Map;
+
+/**
+ * Live counters of Xembly, published through JMX.
+ *
+ * <p>They are collected only if the system property
+ * {@code org.xembly.metrics} is set to {@code true} when the JVM starts;
+ * then they are registered as {@code org.xembly:type=Metrics} in the
+ * platform MBean server. All counters grow since the start.
+ *
+ * @since 0.33
+ */
+public interface MetricsMXBean {
+
+    /**
+     * How many scripts and binary programs were parsed.
+     * @return Number of scripts and programs
+     */
+    long getProgramsParsed();
+
+    /**
+     * How many characters of scripts were parsed, together with
+     * characters of distinct strings of binary programs.
+     * @return Number of characters
+     */
+    long getParsedChars();
+
+    /**
+     * How long parsing of scripts and binary programs took.
+     * @return Nanoseconds
+     */
+    long getParseNanos();
+
+    /**
+     * How many directives were executed.
+     * @return Number of directives
+     */
+    long getDirectivesExecuted();
+
+    /**
+     * How many directives of every verb were executed.
+     * @return Numbers of directives by verbs, with "CUSTOM" for directives,
+     *  which are not built-in
+     */
+    Map<String, Long> getDirectivesPerVerb();
+
+    /**
+     * How many times XPath expressions were evaluated by JAXP, except
+     * simple paths of {@code XPATH}, which are found without it.
+     * @return Number of evaluations
+     */
+    long getXpathEvaluations();
+
+    /**
+     * How many documents were printed by {@link Xembler#xml()}.
+     * @return Number of documents
+     */
+    long getSerializations();
+
+    /**
+     * How long printing of documents took.
+     * @return Nanoseconds
+     */
+    long getSerializationNanos();
+
+    /**
+     * How many characters of documents were printed.
+     * @return Number of characters
+     */
+    long getSerializedChars();
+}
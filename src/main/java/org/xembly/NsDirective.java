@@ -15,19 +15,29 @@ import org.w3c.dom.Node;
  * @since 0.19.3
  */
 @EqualsAndHashCode(of = "namespace")
-final class NsDirective implements Directive {
+final class NsDirective implements Directive, Instruction {
 
     /**
      * Namespace, which should be added to a node.
      */
     private final Arg namespace;
 
+    /**
+     * ATTR directive, which adds the namespace.
+     */
+    private final Directive attr;
+
     /**
      * Creates an instance of NsDirective.
      * @param nsp Namespace, which should be added to a node
      */
     NsDirective(final Arg nsp) {
         this.namespace = nsp;
+        try {
+            this.attr = new AttrDirective("xmlns", nsp.raw());
+        } catch (final XmlContentException exception) {
+            throw new IllegalArgumentException(exception);
+        }
     }
 
     @Override
@@ -38,16 +48,19 @@ final class NsDirective implements Directive {
         );
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.NS;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.namespace.raw()};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom, final Directive.Cursor cursor,
-        final Directive.Stack stack) {
-        try {
-            return new AttrDirective(
-                "xmlns",
-                this.namespace.raw()
-            ).exec(dom, cursor, stack);
-        } catch (final XmlContentException exception) {
-            throw new IllegalArgumentException(exception);
-        }
+        final Directive.Stack stack) throws ImpossibleModificationException {
+        return this.attr.exec(dom, cursor, stack);
     }
 }
@@ -0,0 +1,340 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opcodes of built-in directives.
+ *
+ * <p>Numbers of opcodes are used in the binary format of directives,
+ * that's why they must never change. New opcodes may only be added
+ * to the end of the list.
+ *
+ * @since 0.33
+ */
+final class Opcodes {
+
+    /**
+     * Not an opcode, marks the end of the program.
+     */
+    static final int END = 0;
+
+    /**
+     * ADD.
+     */
+    static final int ADD = 1;
+
+    /**
+     * ADDIF.
+     */
+    static final int ADDIF = 2;
+
+    /**
+     * ATTR.
+     */
+    static final int ATTR = 3;
+
+    /**
+     * CDATA.
+     */
+    static final int CDATA = 4;
+
+    /**
+     * COMMENT.
+     */
+    static final int COMMENT = 5;
+
+    /**
+     * NS.
+     */
+    static final int NS = 6;
+
+    /**
+     * PI.
+     */
+    static final int PI = 7;
+
+    /**
+     * POP.
+     */
+    static final int POP = 8;
+
+    /**
+     * PUSH.
+     */
+    static final int PUSH = 9;
+
+    /**
+     * REMOVE.
+     */
+    static final int REMOVE = 10;
+
+    /**
+     * SET.
+     */
+    static final int SET = 11;
+
+    /**
+     * STRICT.
+     */
+    static final int STRICT = 12;
+
+    /**
+     * UP.
+     */
+    static final int UP = 13;
+
+    /**
+     * XATTR.
+     */
+    static final int XATTR = 14;
+
+    /**
+     * XPATH.
+     */
+    static final int XPATH = 15;
+
+    /**
+     * XSET.
+     */
+    static final int XSET = 16;
+
+    /**
+     * ROWS.
+     */
+    static final int ROWS = 17;
+
+    /**
+     * Names of the commands, by opcodes.
+     */
+    private static final String[] NAMES = {
+        "", "ADD", "ADDIF", "ATTR", "CDATA", "COMMENT", "NS", "PI", "POP",
+        "PUSH", "REMOVE", "SET", "STRICT", "UP", "XATTR", "XPATH", "XSET",
+        "ROWS",
+    };
+
+    /**
+     * Numbers of arguments, by opcodes.
+     */
+    private static final int[] ARITY = {
+        0, 1, 1, 2, 1, 1, 1, 2, 0, 0, 0, 1, 1, 0, 2, 1, 1, 2,
+    };
+
+    /**
+     * Opcodes, by names of the commands.
+     */
+    private static final Map<String, Integer> CODES = new HashMap<>();
+
+    static {
+        for (int code = 1; code < Opcodes.NAMES.length; ++code) {
+            Opcodes.CODES.put(Opcodes.NAMES[code], code);
+        }
+    }
+
+    /**
+     * Utility class.
+     */
+    private Opcodes() {
+        // intentionally empty
+    }
+
+    /**
+     * Find opcode by the name of the command.
+     * @param verb Name of the command, like "ADD"
+     * @return Opcode or {@link #END} if there is no such command
+     */
+    static int find(final String verb) {
+        return Opcodes.CODES.getOrDefault(verb, Opcodes.END);
+    }
+
+    /**
+     * Is it a valid opcode?
+     * @param code The opcode
+     * @return TRUE if it's one of the known commands
+     */
+    static boolean valid(final int code) {
+        return code > Opcodes.END && code < Opcodes.NAMES.length;
+    }
+
+    /**
+     * Name of the command.
+     * @param code Opcode
+     * @return Name, like "ADD"
+     */
+    static String name(final int code) {
+        return Opcodes.NAMES[code];
+    }
+
+    /**
+     * How many arguments does the command have?
+     * @param code Opcode
+     * @return Number of arguments
+     */
+    static int arity(final int code) {
+        return Opcodes.ARITY[code];
+    }
+
+    /**
+     * Make a directive.
+     * @param code Opcode
+     * @param args Arguments, exactly as many as {@link #arity(int)} says
+     * @return Directive
+     * @throws XmlContentException If arguments are not valid XML content
+     * @checkstyle CyclomaticComplexity (50 lines)
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    static Directive make(final int code, final CharSequence... args)
+        throws XmlContentException {
+        final Directive dir;
+        switch (code) {
+            case Opcodes.ADD:
+                dir = Flyweights.add(args[0]);
+                break;
+            case Opcodes.ADDIF:
+                dir = Flyweights.addIf(args[0]);
+                break;
+            case Opcodes.ATTR:
+                dir = Flyweights.attr(args[0], args[1]);
+                break;
+            case Opcodes.CDATA:
+                dir = new CdataDirective(args[0]);
+                break;
+            case Opcodes.COMMENT:
+                dir = new CommentDirective(args[0]);
+                break;
+            case Opcodes.NS:
+                dir = new NsDirective(new Arg(args[0]));
+                break;
+            case Opcodes.PI:
+                dir = new PiDirective(args[0], args[1]);
+                break;
+            case Opcodes.POP:
+                dir = Flyweights.POP;
+                break;
+            case Opcodes.PUSH:
+                dir = Flyweights.PUSH;
+                break;
+            case Opcodes.REMOVE:
+                dir = Flyweights.REMOVE;
+                break;
+            case Opcodes.SET:
+                dir = new SetDirective(args[0]);
+                break;
+            case Opcodes.STRICT:
+                dir = new StrictDirective(Integer.parseInt(args[0].toString()));
+                break;
+            case Opcodes.UP:
+                dir = Flyweights.UP;
+                break;
+            case Opcodes.XATTR:
+                dir = new XattrDirective(args[0], args[1]);
+                break;
+            case Opcodes.XPATH:
+                dir = new XpathDirective(args[0]);
+                break;
+            case Opcodes.XSET:
+                dir = new XsetDirective(args[0]);
+                break;
+            case Opcodes.ROWS:
+                dir = new RowsDirective(args[0], args[1]);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    String.format("Unknown opcode #%d", code)
+                );
+        }
+        return dir;
+    }
+
+    /**
+     * Make a directive of arguments, which are valid already.
+     * @param code Opcode
+     * @param first The first argument or NULL if there is none
+     * @param second The second argument or NULL if there is none
+     * @return Directive
+     * @checkstyle CyclomaticComplexity (50 lines)
+     */
+    @SuppressWarnings("PMD.CyclomaticComplexity")
+    static Directive restore(final int code, final Arg first, final Arg second) {
+        final Directive dir;
+        switch (code) {
+            case Opcodes.ADD:
+                dir = new AddDirective(first);
+                break;
+            case Opcodes.ADDIF:
+                dir = new AddIfDirective(first);
+                break;
+            case Opcodes.ATTR:
+                dir = new AttrDirective(first, second);
+                break;
+            case Opcodes.CDATA:
+                dir = new CdataDirective(first);
+                break;
+            case Opcodes.COMMENT:
+                dir = new CommentDirective(first);
+                break;
+            case Opcodes.NS:
+                dir = new NsDirective(first);
+                break;
+            case Opcodes.PI:
+                dir = new PiDirective(first, second);
+                break;
+            case Opcodes.POP:
+                dir = Flyweights.POP;
+                break;
+            case Opcodes.PUSH:
+                dir = Flyweights.PUSH;
+                break;
+            case Opcodes.REMOVE:
+                dir = Flyweights.REMOVE;
+                break;
+            case Opcodes.SET:
+                dir = new SetDirective(first);
+                break;
+            case Opcodes.STRICT:
+                dir = new StrictDirective(Integer.parseInt(first.raw()));
+                break;
+            case Opcodes.UP:
+                dir = Flyweights.UP;
+                break;
+            case Opcodes.XATTR:
+                dir = new XattrDirective(first, second);
+                break;
+            case Opcodes.XPATH:
+                dir = new XpathDirective(first);
+                break;
+            case Opcodes.XSET:
+                dir = new XsetDirective(first);
+                break;
+            case Opcodes.ROWS:
+                dir = Opcodes.rows(first, second);
+                break;
+            default:
+                throw new IllegalArgumentException(
+                    String.format("Unknown opcode #%d", code)
+                );
+        }
+        return dir;
+    }
+
+    /**
+     * Make ROWS directive of arguments, which are valid already.
+     * @param name Name of the element of a record
+     * @param table Columns and records
+     * @return Directive
+     */
+    private static Directive rows(final Arg name, final Arg table) {
+        try {
+            return new RowsDirective(name.raw(), table.raw());
+        } catch (final XmlContentException ex) {
+            throw new IllegalStateException(
+                String.format("Broken table of ROWS %s", name),
+                ex
+            );
+        }
+    }
+}
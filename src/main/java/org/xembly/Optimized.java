@@ -0,0 +1,169 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Directives, rewritten into an equivalent and shorter program.
+ *
+ * <p>It's a peephole optimizer, which looks at neighbouring directives
+ * and eliminates those, which don't change the result:
+ *
+ * <ul>
+ *  <li>{@code ADD 'x'; REMOVE;} adds nodes and removes them right away;
+ *  <li>{@code PUSH; POP;} restores the cursor it has just saved;
+ *  <li>{@code SET 'a'; SET 'b';} overwrites the text, only the second
+ *  one is needed.
+ * </ul>
+ *
+ * <p>Eliminations may enable more of them: for example,
+ * {@code ADD 'a'; ADD 'b'; REMOVE; REMOVE;} is eliminated entirely.
+ * Directives, which are not built-in, are never touched and nothing
+ * is moved across them.
+ *
+ * <p>A repeated absolute {@code XPATH}, like {@code XPATH '/a'; XPATH '/a';},
+ * is not eliminated: if the first one finds nothing, because the cursor
+ * is at a node, which is not in the document anymore, the second one
+ * starts from the document and may find something.
+ *
+ * <p>The optimized program makes the same document as the original one
+ * whenever the original one succeeds. It may succeed where the original
+ * one fails, for example, if the name in an eliminated {@code ADD}
+ * is not a valid XML name.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Optimized implements Iterable<Directive> {
+
+    /**
+     * Original directives.
+     */
+    private final Iterable<Directive> origin;
+
+    /**
+     * Ctor.
+     * @param dirs Directives to optimize
+     */
+    public Optimized(final Iterable<Directive> dirs) {
+        this.origin = dirs;
+    }
+
+    @Override
+    public String toString() {
+        return new Print(this).toString();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Optimized.Pass(this.origin).dirs.iterator();
+    }
+
+    /**
+     * What was eliminated, in a human-readable form.
+     * @return Report, like "Eliminated 4 of 10 directives: ..."
+     */
+    public String report() {
+        return new Optimized.Pass(this.origin).toString();
+    }
+
+    /**
+     * One pass through the program.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Pass {
+
+        /**
+         * Directives left.
+         */
+        private final List<Directive> dirs;
+
+        /**
+         * Total number of directives seen.
+         */
+        private int total;
+
+        /**
+         * Eliminated ADD/REMOVE pairs.
+         */
+        private int adds;
+
+        /**
+         * Eliminated PUSH/POP pairs.
+         */
+        private int pushes;
+
+        /**
+         * Eliminated overwritten SETs.
+         */
+        private int sets;
+
+        /**
+         * Ctor.
+         * @param origin Directives to optimize
+         */
+        Pass(final Iterable<Directive> origin) {
+            this.dirs = new ArrayList<>(0);
+            for (final Directive dir : origin) {
+                ++this.total;
+                this.push(dir);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Eliminated %d of %d directives: %d ADD/REMOVE pairs, %d PUSH/POP pairs, %d overwritten SETs",
+                this.total - this.dirs.size(), this.total,
+                this.adds, this.pushes, this.sets
+            );
+        }
+
+        /**
+         * Add the next directive, eliminating what's possible.
+         * @param dir The directive
+         */
+        private void push(final Directive dir) {
+            final int code = Optimized.Pass.opcode(dir);
+            final int last = this.dirs.size() - 1;
+            int prev = Opcodes.END;
+            if (last >= 0) {
+                prev = Optimized.Pass.opcode(this.dirs.get(last));
+            }
+            if (code == Opcodes.REMOVE && prev == Opcodes.ADD) {
+                this.dirs.remove(last);
+                ++this.adds;
+            } else if (code == Opcodes.POP && prev == Opcodes.PUSH) {
+                this.dirs.remove(last);
+                ++this.pushes;
+            } else if (code == Opcodes.SET && prev == Opcodes.SET) {
+                this.dirs.set(last, dir);
+                ++this.sets;
+            } else {
+                this.dirs.add(dir);
+            }
+        }
+
+        /**
+         * Opcode of the directive.
+         * @param dir The directive
+         * @return Opcode or {@link Opcodes#END} if it's not built-in
+         */
+        private static int opcode(final Directive dir) {
+            int code = Opcodes.END;
+            if (dir instanceof Instruction) {
+                code = Instruction.class.cast(dir).opcode();
+            }
+            return code;
+        }
+    }
+}
@@ -0,0 +1,607 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Simple XPath, which is evaluated without JAXP.
+ *
+ * <p>Only paths of child steps are supported, absolute or relative,
+ * with names or {@code *} and with predicates, which are either
+ * positions, like {@code [2]}, or comparisons of attributes with
+ * literals, like {@code [@id='5']}, for example
+ * {@code /root/item[@id='5'][1]/*}. A path may also be a single step
+ * of descendants, with comparisons of attributes only, like
+ * {@code //order[@id='123']}, which is found in the {@link Index} of the
+ * document, if there is one. Such paths are the most popular
+ * in programs, and walking the DOM for them is much faster than
+ * evaluating them in JAXP, which builds a DTM for every evaluation.
+ * Any other expression is not parsed, see {@link #parse(String)}.
+ *
+ * <p>Names match elements without namespaces only, exactly as XPath
+ * without namespace context in JAXP does.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+final class Path {
+
+    /**
+     * The longest position in a predicate.
+     */
+    private static final int LONGEST = 9;
+
+    /**
+     * Is it absolute?
+     */
+    private final boolean absolute;
+
+    /**
+     * Is it a single step of descendants, like {@code //item}?
+     */
+    private final boolean deep;
+
+    /**
+     * Steps.
+     */
+    private final Path.Step[] steps;
+
+    /**
+     * Ctor.
+     * @param abs Is it absolute?
+     * @param desc Is it a single step of descendants?
+     * @param stps Steps
+     */
+    private Path(final boolean abs, final boolean desc,
+        final Path.Step... stps) {
+        this.absolute = abs;
+        this.deep = desc;
+        this.steps = stps;
+    }
+
+    /**
+     * Parse XPath expression.
+     * @param expr The expression
+     * @return Path or NULL, if the expression is not that simple
+     */
+    static Path parse(final String expr) {
+        final Path.Parser parser = new Path.Parser(expr);
+        final boolean abs = parser.skip('/');
+        final boolean desc = abs && parser.skip('/');
+        final List<Path.Step> list = new ArrayList<>(1);
+        Path path = null;
+        while (parser.ok()) {
+            final Path.Step step = parser.step();
+            if (step == null || desc && step.positional()) {
+                break;
+            }
+            list.add(step);
+            if (parser.done()) {
+                path = new Path(abs, desc, list.toArray(new Path.Step[0]));
+                break;
+            }
+            if (desc) {
+                break;
+            }
+            if (!parser.skip('/')) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Find nodes.
+     *
+     * <p>Nodes found from every context node are in document order.
+     * An absolute path is evaluated only once for many context
+     * nodes of the same tree.
+     *
+     * @param contexts Context nodes
+     * @param targets Where to add the nodes found
+     */
+    void select(final Iterable<Node> contexts,
+        final Collection<Node> targets) {
+        this.select(contexts, targets, null);
+    }
+
+    /**
+     * Find nodes, with the help of the index.
+     * @param contexts Context nodes
+     * @param targets Where to add the nodes found
+     * @param index Index of the document or NULL
+     */
+    void select(final Iterable<Node> contexts,
+        final Collection<Node> targets, final Index index) {
+        Node previous = null;
+        for (final Node context : contexts) {
+            Node start = context;
+            if (this.absolute) {
+                start = Path.owner(start);
+                while (start.getParentNode() != null) {
+                    start = start.getParentNode();
+                }
+                if (start == previous) {
+                    continue;
+                }
+                previous = start;
+            }
+            if (this.deep) {
+                this.descend(start, targets, index);
+            } else {
+                this.select(start, targets);
+            }
+        }
+    }
+
+    /**
+     * Find nodes, in document order.
+     * @param start The node to start from
+     * @param targets Where to add the nodes found
+     */
+    private void select(final Node start, final Collection<Node> targets) {
+        Collection<Node> current = Collections.singletonList(start);
+        for (int idx = 0; idx < this.steps.length - 1; ++idx) {
+            final Collection<Node> next = new ArrayList<>(current.size());
+            for (final Node node : current) {
+                this.steps[idx].select(node, next);
+            }
+            current = next;
+        }
+        final Path.Step last = this.steps[this.steps.length - 1];
+        for (final Node node : current) {
+            last.select(node, targets);
+        }
+    }
+
+    /**
+     * Find descendants, in document order.
+     *
+     * <p>If it starts from the document of the {@link Index},
+     * which knows few candidates, only they are checked and sorted.
+     * Otherwise, all nodes of the tree are checked.
+     *
+     * @param start The node to start from
+     * @param targets Where to add the nodes found
+     * @param index Index of the document or NULL
+     */
+    private void descend(final Node start, final Collection<Node> targets,
+        final Index index) {
+        final Path.Step step = this.steps[0];
+        Collection<Node> found = null;
+        if (index != null) {
+            found = step.lookup(index, start);
+        }
+        if (found == null) {
+            Node node = start.getFirstChild();
+            while (node != null) {
+                if (step.matches(node)) {
+                    targets.add(node);
+                }
+                Node next = node.getFirstChild();
+                while (next == null && node != start) {
+                    next = node.getNextSibling();
+                    if (next == null) {
+                        node = node.getParentNode();
+                    }
+                }
+                node = next;
+            }
+        } else {
+            final List<Node> nodes = new ArrayList<>(found.size());
+            for (final Node node : found) {
+                if (step.matches(node) && Path.inside(node, start)) {
+                    nodes.add(node);
+                }
+            }
+            nodes.sort(
+                (first, second) -> {
+                    final int order;
+                    if ((first.compareDocumentPosition(second)
+                        & Node.DOCUMENT_POSITION_FOLLOWING) == 0) {
+                        order = 1;
+                    } else {
+                        order = -1;
+                    }
+                    return order;
+                }
+            );
+            targets.addAll(nodes);
+        }
+    }
+
+    /**
+     * Element of the attribute, which has no parent, or the node itself.
+     * @param node The node
+     * @return Its element, if it's an attribute of some, or the node
+     */
+    private static Node owner(final Node node) {
+        Node owner = node;
+        if (node.getNodeType() == Node.ATTRIBUTE_NODE
+            && Attr.class.cast(node).getOwnerElement() != null) {
+            owner = Attr.class.cast(node).getOwnerElement();
+        }
+        return owner;
+    }
+
+    /**
+     * Is the node still inside the tree?
+     *
+     * <p>The index may know nodes, which were removed from the document,
+     * but are still modified, since they stay in the cursor.
+     *
+     * @param node The node
+     * @param top The top of the tree
+     * @return TRUE if it is
+     */
+    private static boolean inside(final Node node, final Node top) {
+        Node parent = node;
+        while (parent != null && parent != top) {
+            parent = parent.getParentNode();
+        }
+        return parent != null;
+    }
+
+    /**
+     * Step of a path.
+     *
+     * <p>The class is immutable and thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Step {
+
+        /**
+         * Name of elements or {@code *}.
+         */
+        private final String name;
+
+        /**
+         * Positions of predicates, or zeros for comparisons of attributes.
+         */
+        private final int[] positions;
+
+        /**
+         * Names of attributes of predicates, or NULLs for positions.
+         */
+        private final String[] attrs;
+
+        /**
+         * Literals of predicates, or NULLs for positions.
+         */
+        private final String[] values;
+
+        /**
+         * Ctor.
+         * @param label Name of elements or {@code *}
+         * @param pos Positions of predicates
+         * @param keys Names of attributes of predicates
+         * @param vals Literals of predicates
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Step(final String label, final int[] pos, final String[] keys,
+            final String[] vals) {
+            this.name = label;
+            this.positions = pos;
+            this.attrs = keys;
+            this.values = vals;
+        }
+
+        /**
+         * Does it have positions in predicates?
+         * @return TRUE if it has
+         */
+        boolean positional() {
+            boolean found = false;
+            for (final int position : this.positions) {
+                if (position > 0) {
+                    found = true;
+                    break;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Does the node match, if there are no positions in predicates?
+         * @param node The node
+         * @return TRUE if it matches
+         */
+        boolean matches(final Node node) {
+            boolean match = this.named(node, false);
+            for (int idx = 0; idx < this.attrs.length && match; ++idx) {
+                match = this.valued(node, idx);
+            }
+            return match;
+        }
+
+        /**
+         * Find candidates in the index.
+         * @param index The index
+         * @param start The node to start from
+         * @return Candidates or NULL, if the index can't help
+         */
+        Collection<Node> lookup(final Index index, final Node start) {
+            String attr = null;
+            String value = null;
+            if (this.attrs.length > 0) {
+                attr = this.attrs[0];
+                value = this.values[0];
+            }
+            return index.find(start, this.name, attr, value);
+        }
+
+        /**
+         * Find children, which match.
+         * @param parent The parent
+         * @param targets Where to add them
+         */
+        void select(final Node parent, final Collection<Node> targets) {
+            final int[] counts = new int[this.positions.length];
+            for (Node child = parent.getFirstChild(); child != null;
+                child = child.getNextSibling()) {
+                if (!this.named(child, true)) {
+                    continue;
+                }
+                boolean match = true;
+                for (int idx = 0; idx < counts.length && match; ++idx) {
+                    if (this.positions[idx] > 0) {
+                        ++counts[idx];
+                        match = counts[idx] == this.positions[idx];
+                    } else {
+                        match = this.valued(child, idx);
+                    }
+                }
+                if (match) {
+                    targets.add(child);
+                }
+                if (counts.length > 0 && this.positions[0] > 0
+                    && counts[0] >= this.positions[0]) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Does the element match the comparison of attribute?
+         * @param node The element
+         * @param idx Position of the predicate
+         * @return TRUE if it matches
+         */
+        private boolean valued(final Node node, final int idx) {
+            final Attr attr = Element.class.cast(node)
+                .getAttributeNode(this.attrs[idx]);
+            return attr != null && this.values[idx].equals(attr.getValue());
+        }
+
+        /**
+         * Is it an element with the right name?
+         *
+         * <p>Elements, which are made by {@code ADD}, have no local
+         * names, that's why JAXP uses the part of the name after
+         * the prefix for children, which this method does too, but
+         * only if asked, since JAXP doesn't do it for descendants.
+         *
+         * @param node The node
+         * @param prefixed Match elements made by {@code ADD} with prefixes?
+         * @return TRUE if it is
+         */
+        private boolean named(final Node node, final boolean prefixed) {
+            boolean named = node.getNodeType() == Node.ELEMENT_NODE;
+            if (named && !"*".equals(this.name)) {
+                final String local = node.getLocalName();
+                if (local == null) {
+                    final String full = node.getNodeName();
+                    named = full.endsWith(this.name)
+                        && (full.length() == this.name.length()
+                        || prefixed && full.charAt(
+                            full.length() - this.name.length() - 1
+                        ) == ':');
+                } else {
+                    named = node.getNamespaceURI() == null
+                        && this.name.equals(local);
+                }
+            }
+            return named;
+        }
+    }
+
+    /**
+     * Parser of paths.
+     *
+     * <p>The class is NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Parser {
+
+        /**
+         * The expression.
+         */
+        private final String text;
+
+        /**
+         * Current position.
+         */
+        private int pos;
+
+        /**
+         * Is it still a simple path?
+         */
+        private boolean simple;
+
+        /**
+         * Ctor.
+         * @param expr The expression
+         */
+        Parser(final String expr) {
+            this.text = expr;
+            this.simple = true;
+        }
+
+        /**
+         * Is it still a simple path?
+         * @return TRUE if it is
+         */
+        boolean ok() {
+            return this.simple;
+        }
+
+        /**
+         * Is it over?
+         * @return TRUE if all characters are parsed
+         */
+        boolean done() {
+            return this.simple && this.pos == this.text.length();
+        }
+
+        /**
+         * Skip the character, if it is the next one.
+         * @param chr The character
+         * @return TRUE if it was skipped
+         */
+        boolean skip(final char chr) {
+            final boolean next = this.pos < this.text.length()
+                && this.text.charAt(this.pos) == chr;
+            if (next) {
+                ++this.pos;
+            }
+            return next;
+        }
+
+        /**
+         * Parse a step.
+         * @return Step or NULL, if it's not simple
+         */
+        Path.Step step() {
+            final String name;
+            if (this.skip('*')) {
+                name = "*";
+            } else {
+                name = this.name();
+            }
+            final List<Integer> pos = new ArrayList<>(0);
+            final List<String> keys = new ArrayList<>(0);
+            final List<String> vals = new ArrayList<>(0);
+            while (this.simple && this.skip('[')) {
+                this.predicate(pos, keys, vals);
+                this.simple = this.simple && this.skip(']');
+            }
+            Path.Step step = null;
+            if (this.simple && name != null) {
+                final int[] positions = new int[pos.size()];
+                for (int idx = 0; idx < positions.length; ++idx) {
+                    positions[idx] = pos.get(idx);
+                }
+                step = new Path.Step(
+                    name, positions,
+                    keys.toArray(new String[0]), vals.toArray(new String[0])
+                );
+            } else {
+                this.simple = false;
+            }
+            return step;
+        }
+
+        /**
+         * Parse a predicate, without brackets.
+         * @param pos Positions of predicates, where to add zero or position
+         * @param keys Names of attributes, where to add NULL or name
+         * @param vals Literals, where to add NULL or literal
+         */
+        private void predicate(final List<Integer> pos,
+            final List<String> keys, final List<String> vals) {
+            if (this.skip('@')) {
+                final String attr = this.name();
+                if (attr == null || "xmlns".equals(attr) || !this.skip('=')) {
+                    this.simple = false;
+                } else {
+                    pos.add(0);
+                    keys.add(attr);
+                    vals.add(this.literal());
+                }
+            } else {
+                pos.add(this.position());
+                keys.add(null);
+                vals.add(null);
+            }
+        }
+
+        /**
+         * Parse a name.
+         * @return The name or NULL, if there is no name
+         */
+        private String name() {
+            final int start = this.pos;
+            while (this.pos < this.text.length()) {
+                final char chr = this.text.charAt(this.pos);
+                if (Character.isLetter(chr) || chr == '_'
+                    || this.pos > start && (chr >= '0' && chr <= '9'
+                    || chr == '-' || chr == '.')) {
+                    ++this.pos;
+                } else {
+                    break;
+                }
+            }
+            String name = null;
+            if (this.pos > start) {
+                name = this.text.substring(start, this.pos);
+            }
+            return name;
+        }
+
+        /**
+         * Parse a literal.
+         * @return The literal, without quotes, or NULL
+         */
+        private String literal() {
+            String literal = null;
+            if (this.pos < this.text.length()) {
+                final char quote = this.text.charAt(this.pos);
+                final int end = this.text.indexOf(quote, this.pos + 1);
+                if ((quote == '\'' || quote == '"') && end > 0) {
+                    literal = this.text.substring(this.pos + 1, end);
+                    this.pos = end + 1;
+                }
+            }
+            if (literal == null) {
+                this.simple = false;
+            }
+            return literal;
+        }
+
+        /**
+         * Parse a position.
+         * @return The position, or zero
+         */
+        private int position() {
+            final int start = this.pos;
+            while (this.pos < this.text.length()
+                && this.pos - start < Path.LONGEST
+                && this.text.charAt(this.pos) >= '0'
+                && this.text.charAt(this.pos) <= '9') {
+                ++this.pos;
+            }
+            int position = 0;
+            if (this.pos > start) {
+                position = Integer.parseInt(
+                    this.text.substring(start, this.pos)
+                );
+            }
+            if (position < 1) {
+                this.simple = false;
+            }
+            return position;
+        }
+    }
+}
@@ -17,7 +17,7 @@ import org.w3c.dom.Node;
  * @since 0.9
  */
 @EqualsAndHashCode(of = { "target", "data" })
-final class PiDirective implements Directive {
+final class PiDirective implements Directive, Instruction {
 
     /**
      * Target name.
@@ -36,9 +36,19 @@ final class PiDirective implements Directive {
      * @throws XmlContentException If invalid input
      * @checkstyle ConstructorsCodeFreeCheck (3 lines)
      */
-    PiDirective(final String tgt, final String dat) throws XmlContentException {
-        this.target = new Arg(tgt.toLowerCase(Locale.ENGLISH));
-        this.data = new Arg(dat);
+    PiDirective(final CharSequence tgt, final CharSequence dat) throws XmlContentException {
+        this(new Arg(tgt.toString().toLowerCase(Locale.ENGLISH)), new Arg(dat));
+    }
+
+    /**
+     * Ctor.
+     * @param tgt Target in lower case, which is valid already
+     * @param dat Data, which is valid already
+     * @since 0.33
+     */
+    PiDirective(final Arg tgt, final Arg dat) {
+        this.target = tgt;
+        this.data = dat;
     }
 
     @Override
@@ -46,6 +56,16 @@ final class PiDirective implements Directive {
         return String.format("PI %s, %s", this.target, this.data);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.PI;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.target.raw(), this.data.raw()};
+    }
+
     @Override
     @SuppressWarnings("aibolit.P13")
     public Directive.Cursor exec(final Node dom,
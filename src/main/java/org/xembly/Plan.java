@@ -0,0 +1,56 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Directives, compiled once in order to be applied many times.
+ *
+ * <p>The directives are taken from the source only once: the script
+ * is parsed, segments are flattened and compact programs are restored
+ * into directive objects, which are kept in an array. Every directive
+ * keeps its own state, which it doesn't need to rediscover again,
+ * for example its XPath expression compiled, see {@link Query}.
+ * It is made by {@link Xembler#compile()}.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+@EqualsAndHashCode
+final class Plan implements Iterable<Directive> {
+
+    /**
+     * Directives, in the order of execution.
+     */
+    private final Directive[] dirs;
+
+    /**
+     * Ctor.
+     * @param source Directives to compile
+     */
+    Plan(final Iterable<Directive> source) {
+        final Collection<Directive> all = new ArrayList<>(0);
+        for (final Directive dir : source) {
+            all.add(dir);
+        }
+        this.dirs = all.toArray(new Directive[0]);
+    }
+
+    @Override
+    public String toString() {
+        return new Print(this).toString();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return Arrays.asList(this.dirs).iterator();
+    }
+}
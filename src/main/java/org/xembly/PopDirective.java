@@ -15,13 +15,23 @@ import org.w3c.dom.Node;
  * @since 0.16
  */
 @EqualsAndHashCode
-final class PopDirective implements Directive {
+final class PopDirective implements Directive, Instruction {
 
     @Override
     public String toString() {
         return "POP";
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.POP;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[0];
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
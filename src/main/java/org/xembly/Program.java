@@ -0,0 +1,189 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact program of built-in directives.
+ *
+ * <p>Unlike {@link Directives}, it doesn't keep a directive object per
+ * directive: the program is an array of integers, where every directive
+ * is an index in a table of distinct directives, while their arguments
+ * are kept in a table of distinct arguments, each of which is validated
+ * once. Equal directives, like {@code UP} or {@code ADD 'item'}, are
+ * kept only once and {@link Xembler} gets the same objects every time
+ * it iterates the program, without making any new ones, that's why
+ * a large program takes several times less memory and is iterated
+ * with no garbage:
+ *
+ * <pre> Program program = new Program(directives);
+ * new Xembler(program).apply(dom);</pre>
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Program implements Iterable<Directive> {
+
+    /**
+     * Indexes of directives in the table.
+     */
+    private final int[] code;
+
+    /**
+     * Distinct directives.
+     */
+    private final Directive[] table;
+
+    /**
+     * Ctor.
+     * @param script Xembly script
+     */
+    public Program(final String script) {
+        this(() -> new Lexer(script));
+    }
+
+    /**
+     * Ctor.
+     * @param dirs Directives, only built-in ones
+     */
+    public Program(final Iterable<Directive> dirs) {
+        final Map<String, Arg> args = new HashMap<>(0);
+        final Map<List<Object>, Integer> refs = new HashMap<>(0);
+        final List<Directive> steps = new ArrayList<>(0);
+        int[] ints = new int[16];
+        int size = 0;
+        for (final Directive dir : dirs) {
+            if (!(dir instanceof Instruction)) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Directive %s is not built-in, it can't be compacted",
+                        dir
+                    )
+                );
+            }
+            final Instruction instr = Instruction.class.cast(dir);
+            final String[] strs = instr.args();
+            final List<Object> key = new ArrayList<>(strs.length + 1);
+            key.add(instr.opcode());
+            for (final String str : strs) {
+                key.add(args.computeIfAbsent(str, Program::arg));
+            }
+            Integer ref = refs.get(key);
+            if (ref == null) {
+                ref = steps.size();
+                refs.put(key, ref);
+                steps.add(Program.restore(key));
+            }
+            if (size == ints.length) {
+                ints = Arrays.copyOf(ints, ints.length * 2);
+            }
+            ints[size] = ref;
+            ++size;
+        }
+        this.code = Arrays.copyOf(ints, size);
+        this.table = steps.toArray(new Directive[0]);
+    }
+
+    @Override
+    public String toString() {
+        return new Print(this).toString();
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        return new Program.Steps(this.code, this.table);
+    }
+
+    /**
+     * Make a directive of its opcode and arguments.
+     * @param key Opcode, followed by valid arguments
+     * @return Directive
+     */
+    private static Directive restore(final List<Object> key) {
+        Arg first = null;
+        Arg second = null;
+        if (key.size() > 1) {
+            first = Arg.class.cast(key.get(1));
+        }
+        if (key.size() > 2) {
+            second = Arg.class.cast(key.get(2));
+        }
+        return Opcodes.restore(Integer.class.cast(key.get(0)), first, second);
+    }
+
+    /**
+     * Argument, which came from a valid directive.
+     * @param str The value
+     * @return Argument
+     */
+    private static Arg arg(final String str) {
+        try {
+            return new Arg(str);
+        } catch (final XmlContentException ex) {
+            throw new IllegalStateException(
+                String.format("Argument \"%s\" of a directive is not valid", str),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Directives of the program, taken from the table one by one.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Steps implements Iterator<Directive> {
+
+        /**
+         * Indexes of directives in the table.
+         */
+        private final int[] code;
+
+        /**
+         * Distinct directives.
+         */
+        private final Directive[] table;
+
+        /**
+         * Position of the next directive.
+         */
+        private int pos;
+
+        /**
+         * Ctor.
+         * @param ints Indexes of directives in the table
+         * @param dirs Distinct directives
+         */
+        Steps(final int[] ints, final Directive[] dirs) {
+            this.code = ints;
+            this.table = dirs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.pos < this.code.length;
+        }
+
+        @Override
+        public Directive next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("The program is over");
+            }
+            final Directive dir = this.table[this.code[this.pos]];
+            ++this.pos;
+            return dir;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of parsed Xembly programs, keyed by their text.
+ *
+ * <p>When the same script is parsed again and again, keep one
+ * instance of this class and ask it for directives, instead of
+ * making new {@link Directives}:
+ *
+ * <pre> Programs programs = new Programs(256, 1_000_000L);
+ * new Xembler(
+ *   programs.parse("ADD 'employee'; ATTR 'id', '42';")
+ * ).apply(dom);</pre>
+ *
+ * <p>Directives are immutable, that's why the same parsed program
+ * is handed out to all callers, without copying. Least recently used
+ * programs are evicted when there are too many of them or when their
+ * total weight (the length of their texts) is too big.
+ *
+ * <p>The class is mutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Programs {
+
+    /**
+     * Programs, in the order of access, the eldest first.
+     */
+    private final Map<String, Iterable<Directive>> cache;
+
+    /**
+     * Lock for thread safety.
+     */
+    private final Lock lock;
+
+    /**
+     * Max number of programs.
+     */
+    private final int size;
+
+    /**
+     * Max total length of the texts of all programs.
+     */
+    private final long weight;
+
+    /**
+     * Total length of the texts of all programs.
+     */
+    private long total;
+
+    /**
+     * How many times the program was found in cache.
+     */
+    private final AtomicLong hit;
+
+    /**
+     * How many times the program was parsed.
+     */
+    private final AtomicLong miss;
+
+    /**
+     * How many programs were evicted.
+     */
+    private final AtomicLong evicted;
+
+    /**
+     * Ctor.
+     * @param max Max number of programs in cache
+     * @param chars Max total length of the texts of all programs in cache
+     */
+    public Programs(final int max, final long chars) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.lock = new ReentrantLock();
+        this.size = max;
+        this.weight = chars;
+        this.hit = new AtomicLong();
+        this.miss = new AtomicLong();
+        this.evicted = new AtomicLong();
+    }
+
+    /**
+     * Get parsed program, from cache or parsing it right now.
+     * @param text Xembly script
+     * @return Immutable directives
+     */
+    public Iterable<Directive> parse(final String text) {
+        Iterable<Directive> dirs;
+        this.lock.lock();
+        try {
+            dirs = this.cache.get(text);
+        } finally {
+            this.lock.unlock();
+        }
+        if (dirs == null) {
+            this.miss.incrementAndGet();
+            dirs = new Verbs(text).directives();
+            this.store(text, dirs);
+        } else {
+            this.hit.incrementAndGet();
+        }
+        return dirs;
+    }
+
+    /**
+     * How many times a program was found in cache.
+     * @return Number of hits
+     */
+    public long hits() {
+        return this.hit.get();
+    }
+
+    /**
+     * How many times a program was not found in cache and was parsed.
+     * @return Number of misses
+     */
+    public long misses() {
+        return this.miss.get();
+    }
+
+    /**
+     * How many programs were evicted from cache.
+     * @return Number of evictions
+     */
+    public long evictions() {
+        return this.evicted.get();
+    }
+
+    @Override
+    public String toString() {
+        this.lock.lock();
+        try {
+            return String.format(
+                "%d programs of %d chars, %d hits, %d misses, %d evictions",
+                this.cache.size(), this.total,
+                this.hits(), this.misses(), this.evictions()
+            );
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Put the program into cache, evicting old ones if necessary.
+     * @param text Xembly script
+     * @param dirs Its directives
+     */
+    private void store(final String text, final Iterable<Directive> dirs) {
+        if (text.length() <= this.weight && this.size > 0) {
+            this.lock.lock();
+            try {
+                if (this.cache.put(text, dirs) == null) {
+                    this.total += text.length();
+                }
+                final Iterator<String> eldest = this.cache.keySet().iterator();
+                while (this.cache.size() > this.size || this.total > this.weight) {
+                    this.total -= eldest.next().length();
+                    eldest.remove();
+                    this.evicted.incrementAndGet();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
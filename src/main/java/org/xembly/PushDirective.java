@@ -10,23 +10,44 @@ import org.w3c.dom.Node;
 /**
  * PUSH directive.
  *
+ * <p>If the stack is full, like {@link Stacks.Bounded} may be, and
+ * refuses the cursor with a runtime exception, the directive fails
+ * with {@link ImpossibleModificationException}, as any other one.
+ *
  * <p>The class is immutable and thread-safe.
  *
  * @since 0.16
  */
 @EqualsAndHashCode
-final class PushDirective implements Directive {
+final class PushDirective implements Directive, Instruction {
 
     @Override
     public String toString() {
         return "PUSH";
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.PUSH;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[0];
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
         throws ImpossibleModificationException {
-        stack.push(cursor);
+        try {
+            stack.push(cursor);
+        } catch (final IllegalStateException ex) {
+            throw new ImpossibleModificationException(
+                String.format("Can't PUSH: %s", ex.getMessage()),
+                ex
+            );
+        }
         return cursor;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import org.w3c.dom.Node;
+
+/**
+ * XPath expression, compiled once and evaluated many times.
+ *
+ * <p>{@link XPathExpression} is not thread-safe, that's why the expression
+ * is compiled as many times as many threads evaluate it at the same
+ * moment, and compiled copies are kept in a small pool, from which
+ * evaluations borrow them. Directives with the same expression share
+ * the same query, see {@link Flyweights#query(String)}, that's why
+ * a program with thousands of equal {@code XPATH} directives compiles
+ * the expression only once.
+ *
+ * <p>The expression is compiled by the {@link Xpaths} engine, which
+ * every evaluation gets explicitly. Copies compiled by the default
+ * engine are kept in a pool of their own, while copies of any other
+ * engine are kept in a pool of that engine, which lives as long as
+ * the engine does.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @since 0.33
+ */
+final class Query {
+
+    /**
+     * How many compiled copies to keep, at most.
+     */
+    private static final int COPIES = Math.min(
+        Runtime.getRuntime().availableProcessors(), 16
+    );
+
+    /**
+     * The default engine.
+     */
+    private static final Xpaths DEFAULT = new Xpaths.Default();
+
+    /**
+     * The expression.
+     */
+    private final String text;
+
+    /**
+     * Copies compiled by the default engine, which are not borrowed
+     * at the moment, with NULLs in empty slots.
+     */
+    private final AtomicReferenceArray<XPathExpression> pool;
+
+    /**
+     * Pools of copies compiled by other engines, by engines.
+     */
+    private final Map<Xpaths, AtomicReferenceArray<XPathExpression>> others;
+
+    /**
+     * Ctor.
+     * @param expr The expression
+     */
+    Query(final String expr) {
+        this.text = expr;
+        this.pool = new AtomicReferenceArray<>(Query.COPIES);
+        this.others = Collections.synchronizedMap(new WeakHashMap<>(1));
+    }
+
+    @Override
+    public String toString() {
+        return this.text;
+    }
+
+    /**
+     * Evaluate it.
+     * @param node Context node
+     * @param type Type of result, one of {@link javax.xml.xpath.XPathConstants}
+     * @param engine The engine, which compiles it
+     * @return Result
+     * @throws XPathExpressionException If the expression is not valid
+     */
+    Object evaluate(final Node node, final QName type, final Xpaths engine)
+        throws XPathExpressionException {
+        final AtomicReferenceArray<XPathExpression> copies;
+        if (engine instanceof Xpaths.Default) {
+            copies = this.pool;
+        } else {
+            copies = this.others.computeIfAbsent(
+                engine, any -> new AtomicReferenceArray<>(Query.COPIES)
+            );
+        }
+        XPathExpression expr = null;
+        for (int idx = 0; idx < Query.COPIES && expr == null; ++idx) {
+            if (copies.get(idx) != null) {
+                expr = copies.getAndSet(idx, null);
+            }
+        }
+        if (expr == null) {
+            expr = engine.create().compile(this.text);
+        }
+        if (Metrics.ENABLED) {
+            Metrics.GLOBAL.evaluated();
+        }
+        try {
+            return expr.evaluate(node, type);
+        } finally {
+            for (int idx = 0; idx < Query.COPIES; ++idx) {
+                if (copies.compareAndSet(idx, null, expr)) {
+                    break;
+                }
+            }
+        }
+    }
+}
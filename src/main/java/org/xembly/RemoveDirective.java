@@ -5,7 +5,6 @@
 package org.xembly;
 
 import java.util.Collection;
-import java.util.HashSet;
 import lombok.EqualsAndHashCode;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
@@ -19,29 +18,66 @@ import org.w3c.dom.Node;
  * @since 0.2
  */
 @EqualsAndHashCode
-final class RemoveDirective implements Directive {
+final class RemoveDirective implements Directive, Instruction, Session.Aware {
 
     @Override
     public String toString() {
         return "REMOVE";
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.REMOVE;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[0];
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack) {
-        final Collection<Node> parents = new HashSet<>(cursor.size());
-        for (final Node node : cursor) {
-            parents.add(RemoveDirective.parent(node));
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) {
+        final Index index = session.index();
+        final Directive.Cursor result;
+        if (cursor instanceof SingleCursor) {
+            result = new SingleCursor(
+                RemoveDirective.parent(
+                    SingleCursor.class.cast(cursor).node(), index
+                )
+            );
+        } else {
+            final Collection<Node> parents = new UniqueNodes(cursor.size());
+            for (final Node node : cursor) {
+                parents.add(RemoveDirective.parent(node, index));
+            }
+            result = new DomCursor(parents);
         }
-        return new DomCursor(parents);
+        return result;
     }
 
+    /**
+     * Remove the node.
+     * @param node The node
+     * @param index Index of the document or NULL
+     * @return Its parent
+     */
     @SuppressWarnings("aibolit.P13")
-    private static Node parent(final Node node) {
+    private static Node parent(final Node node, final Index index) {
         final Node parent;
         if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
             final Attr attr = Attr.class.cast(node);
             parent = attr.getOwnerElement();
+            if (index != null) {
+                index.changing(Element.class.cast(parent), attr.getName());
+            }
             Element.class.cast(parent).removeAttributeNode(attr);
         } else {
             parent = node.getParentNode();
@@ -50,6 +86,9 @@ final class RemoveDirective implements Directive {
                     "You can't delete root element from the XML"
                 );
             }
+            if (index != null) {
+                index.removing(node);
+            }
             parent.removeChild(node);
         }
         return parent;
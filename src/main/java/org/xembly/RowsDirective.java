@@ -0,0 +1,487 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.EqualsAndHashCode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * ROWS directive.
+ *
+ * <p>Adds an element for every record to all current nodes, with a child
+ * element for every column, having the value of the column as its text.
+ * The cursor stays where it was. It is the same as {@code ADD},
+ * {@code ADD}, {@code SET} and {@code UP} for every column and
+ * {@code UP} for every record, but takes one directive instead of
+ * thousands of them.
+ *
+ * <p>In Xembly script the records are a table in the second argument,
+ * where columns are separated by commas and records by semicolons,
+ * while the first record contains names of the columns. A comma,
+ * a semicolon or a backslash inside a value must be escaped with a
+ * backslash:
+ *
+ * <pre> ROWS 'car', 'make,model;BMW,X5;Tesla,Model S';</pre>
+ *
+ * <p>In Java, records are taken from an {@link Iterable} lazily, one
+ * by one, while the directive is executed, see
+ * {@link Directives#rows(Object, Iterable, Map)}. The records are
+ * iterated again every time the directive is executed. They are not
+ * printed by {@link #toString()}, which shows only the columns, like
+ * {@code ROWS "car", <lazy records of "make,model">}, and such a text
+ * is not a valid script, that's why it can't be parsed back by mistake.
+ * The records are all taken into one string by {@link #args()}, when the
+ * directive is written in binary format or compiled to a
+ * {@link Program}.
+ *
+ * <p>Directives are equal if they have the same names, columns and
+ * records, which are either the same table of a script or the same
+ * {@link Iterable} with the same functions.
+ *
+ * <p>The class is immutable and thread-safe, if the records are.
+ *
+ * @since 0.33
+ */
+@EqualsAndHashCode(of = {"name", "columns", "records"})
+final class RowsDirective implements Directive, Instruction, Session.Aware {
+
+    /**
+     * Name of the element of a record.
+     */
+    private final Arg name;
+
+    /**
+     * Names of columns.
+     */
+    private final String[] columns;
+
+    /**
+     * Records, each with a value for every column.
+     */
+    private final Iterable<Object[]> records;
+
+    /**
+     * Ctor.
+     * @param row Name of the element of a record
+     * @param table Columns and records in the format of Xembly script
+     * @throws XmlContentException If invalid input
+     */
+    RowsDirective(final CharSequence row, final CharSequence table)
+        throws XmlContentException {
+        this(new Arg(row), RowsDirective.parse(table));
+    }
+
+    /**
+     * Ctor.
+     * @param row Name of the element of a record
+     * @param cols Names of columns and functions, which take values of them
+     *  from a record
+     * @param items Records
+     * @param <T> Type of records
+     * @throws XmlContentException If invalid input
+     */
+    <T> RowsDirective(final CharSequence row,
+        final Map<String, ? extends Function<? super T, ?>> cols,
+        final Iterable<T> items) throws XmlContentException {
+        this(
+            new Arg(row),
+            RowsDirective.names(cols.keySet()),
+            new RowsDirective.Lazy<>(items, new ArrayList<>(cols.values()))
+        );
+    }
+
+    /**
+     * Primary ctor.
+     * @param row Name of the element of a record
+     * @param cols Names of columns, which are valid already
+     * @param items Records
+     */
+    private RowsDirective(final Arg row, final String[] cols,
+        final Iterable<Object[]> items) {
+        this.name = row;
+        this.columns = cols;
+        this.records = items;
+    }
+
+    /**
+     * Ctor.
+     * @param row Name of the element of a record
+     * @param parsed Names of columns, followed by records
+     */
+    private RowsDirective(final Arg row, final List<Object[]> parsed) {
+        this(
+            row,
+            String[].class.cast(parsed.get(0)),
+            new RowsDirective.Table(
+                parsed.subList(1, parsed.size()).toArray(new Object[0][])
+            )
+        );
+    }
+
+    @Override
+    public String toString() {
+        final String table;
+        if (this.records instanceof RowsDirective.Table) {
+            table = this.table().toString();
+        } else {
+            final StringBuilder out = new StringBuilder(64);
+            RowsDirective.line(out, this.columns);
+            table = String.format(
+                "<lazy records of %s>", RowsDirective.arg(out, this.name)
+            );
+        }
+        return String.format("ROWS %s, %s", this.name, table);
+    }
+
+    @Override
+    public int opcode() {
+        return Opcodes.ROWS;
+    }
+
+    /**
+     * Raw arguments, with all records in the second one.
+     *
+     * <p>Records, which are taken lazily, are all taken here, that's
+     * why an {@link Iterable}, which may be iterated only once, can't
+     * be used after that.
+     *
+     * @return Arguments
+     */
+    @Override
+    public String[] args() {
+        return new String[] {this.name.raw(), this.table().raw()};
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack)
+        throws ImpossibleModificationException {
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) throws ImpossibleModificationException {
+        final Document doc;
+        if (dom.getOwnerDocument() == null) {
+            doc = Document.class.cast(dom);
+        } else {
+            doc = dom.getOwnerDocument();
+        }
+        final Index index = session.index();
+        final String[] texts = new String[this.columns.length];
+        int pos = 0;
+        for (final Object[] record : this.records) {
+            ++pos;
+            for (int idx = 0; idx < texts.length; ++idx) {
+                texts[idx] = RowsDirective.text(record[idx], pos, this.columns[idx]);
+            }
+            for (final Node node : cursor) {
+                final Element row = doc.createElement(this.name.raw());
+                for (int idx = 0; idx < texts.length; ++idx) {
+                    final Element cell = doc.createElement(this.columns[idx]);
+                    cell.setTextContent(texts[idx]);
+                    row.appendChild(cell);
+                }
+                node.appendChild(row);
+                if (index != null) {
+                    index.added(row);
+                }
+            }
+        }
+        return cursor;
+    }
+
+    /**
+     * Columns and records in the format of Xembly script.
+     * @return The table
+     */
+    private Arg table() {
+        final StringBuilder out = new StringBuilder(64);
+        RowsDirective.line(out, this.columns);
+        for (final Object[] record : this.records) {
+            out.append(';');
+            RowsDirective.line(out, record);
+        }
+        return RowsDirective.arg(out, this.name);
+    }
+
+    /**
+     * Table as an argument.
+     * @param table Columns and records in the format of Xembly script
+     * @param row Name of the element of a record
+     * @return The argument
+     */
+    private static Arg arg(final CharSequence table, final Arg row) {
+        try {
+            return new Arg(table.toString());
+        } catch (final XmlContentException ex) {
+            throw new IllegalStateException(
+                String.format("Records of ROWS %s are not valid XML content", row),
+                ex
+            );
+        }
+    }
+
+    /**
+     * Text of a value.
+     * @param value The value or NULL
+     * @param pos Number of the record
+     * @param column Name of the column
+     * @return Valid text, empty if the value is NULL
+     * @throws ImpossibleModificationException If it's not valid XML content
+     */
+    private static String text(final Object value, final int pos,
+        final String column) throws ImpossibleModificationException {
+        String text = "";
+        if (value != null) {
+            try {
+                text = new Arg(value.toString()).raw();
+            } catch (final XmlContentException ex) {
+                throw new ImpossibleModificationException(
+                    String.format(
+                        "Value of column \"%s\" in record #%d is not valid XML content",
+                        column, pos
+                    ),
+                    ex
+                );
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Print one line of the table.
+     * @param out Where to print
+     * @param values Values of the line
+     */
+    private static void line(final StringBuilder out, final Object[] values) {
+        for (int idx = 0; idx < values.length; ++idx) {
+            if (idx > 0) {
+                out.append(',');
+            }
+            if (values[idx] != null) {
+                final String value = values[idx].toString();
+                for (int pos = 0; pos < value.length(); ++pos) {
+                    final char chr = value.charAt(pos);
+                    if (chr == ',' || chr == ';' || chr == '\\') {
+                        out.append('\\');
+                    }
+                    out.append(chr);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parse the table.
+     * @param table Columns and records in the format of Xembly script
+     * @return Names of columns, followed by records
+     * @throws XmlContentException If the table is broken
+     */
+    private static List<Object[]> parse(final CharSequence table)
+        throws XmlContentException {
+        final List<Object[]> lines = new ArrayList<>(1);
+        final List<String> cells = new ArrayList<>(1);
+        final StringBuilder cell = new StringBuilder(16);
+        final int len = table.length();
+        for (int idx = 0; idx <= len; ++idx) {
+            final char chr;
+            if (idx == len) {
+                chr = ';';
+            } else {
+                chr = table.charAt(idx);
+            }
+            if (chr == '\\' && idx + 1 < len) {
+                ++idx;
+                cell.append(table.charAt(idx));
+            } else if (chr == ',' || chr == ';') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                if (chr == ';') {
+                    lines.add(RowsDirective.record(lines, cells));
+                    cells.clear();
+                }
+            } else {
+                cell.append(chr);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Make a line of the table.
+     * @param lines Lines parsed so far, the names of columns first
+     * @param cells Cells of the line
+     * @return Names of columns, if it's the first line, or a record
+     * @throws XmlContentException If the number of cells is wrong
+     */
+    private static Object[] record(final List<Object[]> lines,
+        final List<String> cells) throws XmlContentException {
+        final Object[] line;
+        if (lines.isEmpty()) {
+            line = RowsDirective.names(cells);
+        } else if (cells.size() == lines.get(0).length) {
+            line = cells.toArray();
+        } else {
+            throw new XmlContentException(
+                String.format(
+                    "Record #%d of ROWS has %d values, while %d columns are expected",
+                    lines.size(), cells.size(), lines.get(0).length
+                )
+            );
+        }
+        return line;
+    }
+
+    /**
+     * Validate names of columns.
+     * @param names Names
+     * @return Valid names
+     * @throws XmlContentException If any of them is not valid
+     */
+    private static String[] names(final Collection<String> names)
+        throws XmlContentException {
+        final String[] valid = new String[names.size()];
+        int idx = 0;
+        for (final String name : names) {
+            if (name.isEmpty()) {
+                throw new XmlContentException(
+                    String.format("Name of column #%d of ROWS is empty", idx + 1)
+                );
+            }
+            valid[idx] = new Arg(name).raw();
+            ++idx;
+        }
+        return valid;
+    }
+
+    /**
+     * Records of a table of a script.
+     *
+     * <p>The class is immutable and thread-safe.
+     *
+     * @since 0.33
+     */
+    @EqualsAndHashCode
+    private static final class Table implements Iterable<Object[]> {
+
+        /**
+         * Records.
+         */
+        private final Object[][] lines;
+
+        /**
+         * Ctor.
+         * @param rows Records
+         */
+        Table(final Object[]... rows) {
+            this.lines = rows;
+        }
+
+        @Override
+        public Iterator<Object[]> iterator() {
+            return Arrays.asList(this.lines).iterator();
+        }
+    }
+
+    /**
+     * Records, which are made of objects by functions, when they
+     * are iterated.
+     *
+     * <p>The class is immutable and thread-safe, if the objects are.
+     *
+     * @param <T> Type of objects
+     * @since 0.33
+     */
+    @EqualsAndHashCode
+    private static final class Lazy<T> implements Iterable<Object[]> {
+
+        /**
+         * Objects.
+         */
+        private final Iterable<T> items;
+
+        /**
+         * Functions, one per column.
+         */
+        private final List<? extends Function<? super T, ?>> funcs;
+
+        /**
+         * Ctor.
+         * @param objects Objects
+         * @param cols Functions, one per column
+         */
+        Lazy(final Iterable<T> objects,
+            final List<? extends Function<? super T, ?>> cols) {
+            this.items = objects;
+            this.funcs = cols;
+        }
+
+        @Override
+        public Iterator<Object[]> iterator() {
+            return new RowsDirective.Mapped<>(this.items.iterator(), this.funcs);
+        }
+    }
+
+    /**
+     * Records, made of objects by functions, one by one.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @param <T> Type of objects
+     * @since 0.33
+     */
+    private static final class Mapped<T> implements Iterator<Object[]> {
+
+        /**
+         * Objects.
+         */
+        private final Iterator<T> origin;
+
+        /**
+         * Functions, one per column.
+         */
+        private final Collection<? extends Function<? super T, ?>> funcs;
+
+        /**
+         * Ctor.
+         * @param items Objects
+         * @param cols Functions, one per column
+         */
+        Mapped(final Iterator<T> items,
+            final Collection<? extends Function<? super T, ?>> cols) {
+            this.origin = items;
+            this.funcs = cols;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.origin.hasNext();
+        }
+
+        @Override
+        public Object[] next() {
+            final T item = this.origin.next();
+            final Object[] record = new Object[this.funcs.size()];
+            int idx = 0;
+            for (final Function<? super T, ?> func : this.funcs) {
+                record[idx] = func.apply(item);
+                ++idx;
+            }
+            return record;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Xembly script, parsed lazily from a reader, a stream or a file.
+ *
+ * <p>Unlike {@link Directives}, it doesn't keep the script or its
+ * directives in memory: they are parsed one by one, while
+ * {@link Xembler} applies them, so the memory footprint
+ * doesn't depend on the size of the script:
+ *
+ * <pre> new Xembler(
+ *   new Script(Paths.get("huge.xe"))
+ * ).apply(dom);</pre>
+ *
+ * <p>The script is read in UTF-8, unless a {@link Reader} is
+ * provided. A script made of a file may be iterated many times,
+ * while a script made of a reader or a stream may be iterated only once.
+ * The reader is closed when the end of the script is reached or when
+ * the script turns out to be broken. Its iterator is {@link Closeable},
+ * that's why {@link Xembler} closes the reader also when a directive
+ * fails in the middle of the script. Whoever else iterates it and
+ * stops before the end, should close the iterator too.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Script implements Iterable<Directive> {
+
+    /**
+     * Source of the text.
+     */
+    private final Script.Source source;
+
+    /**
+     * Ctor.
+     * @param path File with Xembly script
+     */
+    public Script(final Path path) {
+        this(() -> Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ctor.
+     * @param stream Stream with Xembly script, in UTF-8
+     */
+    public Script(final InputStream stream) {
+        this(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ctor.
+     * @param reader Reader of Xembly script
+     */
+    public Script(final Reader reader) {
+        this(new Script.Once(reader));
+    }
+
+    /**
+     * Primary ctor.
+     * @param src Source of the text
+     */
+    private Script(final Script.Source src) {
+        this.source = src;
+    }
+
+    @Override
+    public Iterator<Directive> iterator() {
+        final Reader reader;
+        try {
+            reader = this.source.open();
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Failed to open Xembly script", ex);
+        }
+        return new Script.Closing(new Lexer(new Chars.Streamed(reader)), reader);
+    }
+
+    /**
+     * Source of the text.
+     * @since 0.33
+     */
+    @FunctionalInterface
+    private interface Source {
+
+        /**
+         * Open a new reader.
+         * @return Reader
+         * @throws IOException If fails
+         */
+        Reader open() throws IOException;
+    }
+
+    /**
+     * Source, which may be opened only once.
+     * @since 0.33
+     */
+    private static final class Once implements Script.Source {
+
+        /**
+         * The reader.
+         */
+        private final Reader reader;
+
+        /**
+         * Is it opened already?
+         */
+        private final AtomicBoolean opened;
+
+        /**
+         * Ctor.
+         * @param rdr The reader
+         */
+        Once(final Reader rdr) {
+            this.reader = rdr;
+            this.opened = new AtomicBoolean();
+        }
+
+        @Override
+        public Reader open() {
+            if (this.opened.getAndSet(true)) {
+                throw new IllegalStateException(
+                    "Xembly script from a reader or a stream can be iterated only once"
+                );
+            }
+            return this.reader;
+        }
+    }
+
+    /**
+     * Iterator, which closes the reader when it's done or closed.
+     * @since 0.33
+     */
+    private static final class Closing implements Iterator<Directive>, Closeable {
+
+        /**
+         * Origin.
+         */
+        private final Iterator<Directive> origin;
+
+        /**
+         * The reader to close.
+         */
+        private final Reader reader;
+
+        /**
+         * Ctor.
+         * @param orgn Origin
+         * @param rdr Reader to close
+         */
+        Closing(final Iterator<Directive> orgn, final Reader rdr) {
+            this.origin = orgn;
+            this.reader = rdr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            final boolean more;
+            try {
+                more = this.origin.hasNext();
+            } catch (final IllegalStateException ex) {
+                this.close();
+                throw ex;
+            }
+            if (!more) {
+                this.close();
+            }
+            return more;
+        }
+
+        @Override
+        public Directive next() {
+            try {
+                return this.origin.next();
+            } catch (final SyntaxException | IllegalStateException ex) {
+                this.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Close the reader.
+         */
+        @Override
+        public void close() {
+            try {
+                this.reader.close();
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Failed to close Xembly script", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.w3c.dom.Node;
+
+/**
+ * Immutable sequence of directives, shared by reference.
+ *
+ * <p>{@link Directives#append(Iterable)} adds a segment instead of
+ * copying directives of another {@link Directives}, that's why
+ * appending takes constant time. Segments may contain other segments,
+ * making a rope, which {@link Segment.Flat} walks in order, without
+ * recursion.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+final class Segment implements Directive {
+
+    /**
+     * Directives, some of which may be segments too.
+     */
+    private final Iterable<Directive> dirs;
+
+    /**
+     * Ctor.
+     * @param list Directives, which will never change
+     */
+    Segment(final Iterable<Directive> list) {
+        this.dirs = list;
+    }
+
+    @Override
+    public String toString() {
+        return new Print(() -> new Segment.Flat(this.dirs)).toString();
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack)
+        throws ImpossibleModificationException {
+        Directive.Cursor cur = cursor;
+        final Iterator<Directive> all = new Segment.Flat(this.dirs);
+        while (all.hasNext()) {
+            cur = all.next().exec(dom, cur, stack);
+        }
+        return cur;
+    }
+
+    /**
+     * Iterator of directives, which replaces segments with their content.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    static final class Flat implements Iterator<Directive> {
+
+        /**
+         * Iterators of segments, which are being walked through.
+         */
+        private final Deque<Iterator<Directive>> stack;
+
+        /**
+         * The next directive or NULL if it's not found yet.
+         */
+        private Directive ahead;
+
+        /**
+         * Ctor.
+         * @param dirs Directives, some of which may be segments
+         */
+        Flat(final Iterable<Directive> dirs) {
+            this.stack = new ArrayDeque<>(1);
+            this.stack.push(dirs.iterator());
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.ahead == null && !this.stack.isEmpty()) {
+                final Iterator<Directive> top = this.stack.peek();
+                if (top.hasNext()) {
+                    final Directive dir = top.next();
+                    if (dir instanceof Segment) {
+                        this.stack.push(Segment.class.cast(dir).dirs.iterator());
+                    } else {
+                        this.ahead = dir;
+                    }
+                } else {
+                    this.stack.pop();
+                }
+            }
+            return this.ahead != null;
+        }
+
+        @Override
+        public Directive next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more directives");
+            }
+            final Directive dir = this.ahead;
+            this.ahead = null;
+            return dir;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import org.w3c.dom.Node;
+
+/**
+ * What one application of directives to a document knows, besides
+ * the document, the cursor and the stack.
+ *
+ * <p>{@link Xembler} makes it for every application and gives it to
+ * directives, which are {@link Session.Aware}, explicitly, instead of
+ * keeping anything in the document.
+ *
+ * <p>The class is immutable, but the {@link Index} in it is not, that's
+ * why it is thread-safe only without an index, like {@link #PLAIN}.
+ *
+ * @since 0.33
+ */
+final class Session {
+
+    /**
+     * Session without an index and with the default XPath engine,
+     * for directives executed on their own.
+     */
+    static final Session PLAIN = new Session(null, new Xpaths.Default(), 0);
+
+    /**
+     * Index of the document or NULL.
+     */
+    private final Index idx;
+
+    /**
+     * XPath engine.
+     */
+    private final Xpaths engine;
+
+    /**
+     * How many nodes to evaluate in parallel, at least, or zero.
+     */
+    private final int min;
+
+    /**
+     * Ctor.
+     * @param index Index of the document or NULL
+     * @param xpaths XPath engine
+     * @param parallel How many current nodes {@code XSET} and
+     *  {@code XATTR} evaluate in parallel, at least, or zero if never
+     */
+    Session(final Index index, final Xpaths xpaths, final int parallel) {
+        this.idx = index;
+        this.engine = xpaths;
+        this.min = parallel;
+    }
+
+    /**
+     * Index of the document.
+     * @return The index or NULL, if it's not indexed
+     */
+    Index index() {
+        return this.idx;
+    }
+
+    /**
+     * XPath engine, for expressions, which are not simple paths.
+     * @return The engine
+     */
+    Xpaths xpaths() {
+        return this.engine;
+    }
+
+    /**
+     * How many current nodes {@code XSET} and {@code XATTR} evaluate
+     * in parallel, at least.
+     * @return Number of nodes or zero, if never
+     */
+    int parallel() {
+        return this.min;
+    }
+
+    /**
+     * Directive, which needs the session.
+     *
+     * <p>{@link Xembler} calls this method instead of
+     * {@link Directive#exec(Node, Directive.Cursor, Directive.Stack)},
+     * which executes it in the {@link Session#PLAIN} session.
+     *
+     * @since 0.33
+     */
+    interface Aware {
+
+        /**
+         * Execute it in the given document with current position at
+         * the given node.
+         * @param dom Document
+         * @param cursor Nodes we're currently at
+         * @param stack Execution stack
+         * @param session The session
+         * @return New current nodes
+         * @throws ImpossibleModificationException If can't do it
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Directive.Cursor exec(Node dom, Directive.Cursor cursor,
+            Directive.Stack stack, Session session)
+            throws ImpossibleModificationException;
+    }
+}
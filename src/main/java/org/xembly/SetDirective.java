@@ -15,7 +15,7 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode(of = "value")
-final class SetDirective implements Directive {
+final class SetDirective implements Directive, Instruction, Session.Aware {
 
     /**
      * Text value to set.
@@ -27,8 +27,17 @@ final class SetDirective implements Directive {
      * @param val Text value to set
      * @throws XmlContentException If invalid input
      */
-    SetDirective(final String val) throws XmlContentException {
-        this.value = new Arg(val);
+    SetDirective(final CharSequence val) throws XmlContentException {
+        this(new Arg(val));
+    }
+
+    /**
+     * Ctor.
+     * @param val Text value to set, which is valid already
+     * @since 0.33
+     */
+    SetDirective(final Arg val) {
+        this.value = val;
     }
 
     @Override
@@ -36,11 +45,43 @@ final class SetDirective implements Directive {
         return String.format("SET %s", this.value);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.SET;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.value.raw()};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack) {
-        for (final Node node : cursor) {
-            node.setTextContent(this.value.raw());
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) {
+        final Index index = session.index();
+        if (index != null) {
+            for (final Node node : cursor) {
+                index.emptying(node);
+            }
+        }
+        if (cursor instanceof SingleCursor) {
+            SingleCursor.class.cast(cursor).node().setTextContent(this.value.raw());
+        } else {
+            for (final Node node : cursor) {
+                node.setTextContent(this.value.raw());
+            }
+        }
+        if (index != null) {
+            for (final Node node : cursor) {
+                index.filled(node);
+            }
         }
         return cursor;
     }
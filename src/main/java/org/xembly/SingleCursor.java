@@ -0,0 +1,102 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import lombok.EqualsAndHashCode;
+import org.w3c.dom.Node;
+
+/**
+ * Cursor at exactly one DOM node.
+ *
+ * <p>Almost all directives are executed at one node. This cursor
+ * doesn't need a collection inside and directives may take its
+ * node directly, see {@link #node()}, without iterating it. Its
+ * iterator is one small object, with nothing but the node and a flag,
+ * since an iterator has its own state and can't be shared.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+@EqualsAndHashCode(callSuper = false, of = "node")
+final class SingleCursor extends
+    AbstractCollection<Node> implements Directive.Cursor {
+
+    /**
+     * The node.
+     */
+    private final Node node;
+
+    /**
+     * Ctor.
+     * @param src The node
+     */
+    SingleCursor(final Node src) {
+        this.node = src;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return new SingleCursor.Once(this.node);
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    /**
+     * The node it is at.
+     * @return The node
+     */
+    Node node() {
+        return this.node;
+    }
+
+    /**
+     * Iterator of one node.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Once implements Iterator<Node> {
+
+        /**
+         * The node.
+         */
+        private final Node node;
+
+        /**
+         * Is the node taken?
+         */
+        private boolean taken;
+
+        /**
+         * Ctor.
+         * @param src The node
+         */
+        Once(final Node src) {
+            this.node = src;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.taken;
+        }
+
+        @Override
+        public Node next() {
+            if (this.taken) {
+                throw new NoSuchElementException("The node is taken already");
+            }
+            this.taken = true;
+            return this.node;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+/**
+ * Stack factory.
+ *
+ * <p>{@link Xembler} creates a new stack for every
+ * {@link Xembler#apply(org.w3c.dom.Node)}, for {@code PUSH} and
+ * {@code POP} directives:
+ *
+ * <pre> new Xembler(dirs, new Transformers.Document(), new Stacks.Bounded(64))
+ *   .apply(dom);</pre>
+ *
+ * @since 0.33
+ */
+@FunctionalInterface
+public interface Stacks {
+
+    /**
+     * Create stack.
+     * @return Stack
+     */
+    Directive.Stack create();
+
+    /**
+     * Unbounded stack without locks, which is the default one.
+     * @since 0.33
+     */
+    final class Default implements Stacks {
+
+        @Override
+        public Directive.Stack create() {
+            return new ArrayStack();
+        }
+    }
+
+    /**
+     * Stack without locks, which fails when too many cursors are pushed.
+     * @since 0.33
+     */
+    final class Bounded implements Stacks {
+
+        /**
+         * Maximum number of cursors.
+         */
+        private final int depth;
+
+        /**
+         * Ctor.
+         * @param max Maximum number of cursors in the stack, not negative
+         */
+        public Bounded(final int max) {
+            if (max < 0) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Depth of the stack can't be negative: %d", max
+                    )
+                );
+            }
+            this.depth = max;
+        }
+
+        @Override
+        public Directive.Stack create() {
+            return new ArrayStack(this.depth);
+        }
+    }
+
+    /**
+     * Thread-safe stack, which takes a lock for every operation.
+     * @since 0.33
+     */
+    final class Locked implements Stacks {
+
+        @Override
+        public Directive.Stack create() {
+            return new DomStack();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Arrays;
+import java.util.Collection;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import org.w3c.dom.Node;
+
+/**
+ * Values of XPath expression for all nodes of a cursor, which
+ * {@code XSET} and {@code XATTR} calculate before they modify any of them.
+ *
+ * <p>Nodes and values are kept in two arrays, in the order of the cursor,
+ * without an object per node. Values for large cursors may be
+ * calculated in parallel, in the common
+ * {@link java.util.concurrent.ForkJoinPool}, if {@link Xembler#parallel(int)}
+ * asks for it.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @since 0.33
+ */
+final class Staging {
+
+    /**
+     * Nodes.
+     */
+    private final Node[] nodes;
+
+    /**
+     * Values, for the nodes with the same positions.
+     */
+    private final String[] values;
+
+    /**
+     * How many nodes to calculate in parallel, at least, or zero.
+     */
+    private final int parallel;
+
+    /**
+     * Ctor.
+     * @param cursor Nodes of the cursor
+     * @param min How many nodes to calculate in parallel, at least,
+     *  or zero if never
+     */
+    Staging(final Collection<Node> cursor, final int min) {
+        this.nodes = cursor.toArray(new Node[0]);
+        this.values = new String[this.nodes.length];
+        this.parallel = min;
+    }
+
+    /**
+     * Calculate values.
+     * @param query XPath expression
+     * @param engine XPath engine
+     * @return Itself
+     * @throws XPathExpressionException If the expression is not valid
+     */
+    Staging evaluate(final Query query, final Xpaths engine)
+        throws XPathExpressionException {
+        if (this.parallel > 0 && this.nodes.length >= this.parallel) {
+            try {
+                Arrays.parallelSetAll(
+                    this.values,
+                    idx -> Staging.text(query, this.nodes[idx], engine)
+                );
+            } catch (final IllegalStateException ex) {
+                Throwable cause = ex.getCause();
+                while (cause != null
+                    && !(cause instanceof XPathExpressionException)) {
+                    cause = cause.getCause();
+                }
+                if (cause == null) {
+                    throw ex;
+                }
+                throw XPathExpressionException.class.cast(cause);
+            }
+        } else {
+            for (int idx = 0; idx < this.nodes.length; ++idx) {
+                this.values[idx] = query.evaluate(
+                    this.nodes[idx], XPathConstants.STRING, engine
+                ).toString();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * How many nodes are there?
+     * @return Number of nodes
+     */
+    int size() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Node at the position.
+     * @param idx Position
+     * @return The node
+     */
+    Node node(final int idx) {
+        return this.nodes[idx];
+    }
+
+    /**
+     * Value of the node at the position.
+     * @param idx Position
+     * @return The value
+     */
+    String value(final int idx) {
+        return this.values[idx];
+    }
+
+    /**
+     * Calculate value, without checked exceptions.
+     * @param query XPath expression
+     * @param node The node
+     * @param engine XPath engine
+     * @return The value
+     */
+    private static String text(final Query query, final Node node,
+        final Xpaths engine) {
+        try {
+            return query.evaluate(
+                node, XPathConstants.STRING, engine
+            ).toString();
+        } catch (final XPathExpressionException ex) {
+            throw new IllegalStateException(
+                String.format("Invalid XPath expression '%s'", query), ex
+            );
+        }
+    }
+}
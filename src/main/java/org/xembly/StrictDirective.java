@@ -15,7 +15,7 @@ import org.w3c.dom.Node;
  * @since 0.3
  */
 @EqualsAndHashCode(of = "number")
-final class StrictDirective implements Directive {
+final class StrictDirective implements Directive, Instruction {
 
     /**
      * Number of nodes we're expecting.
@@ -35,6 +35,16 @@ final class StrictDirective implements Directive {
         return String.format("STRICT \"%d\"", this.number);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.STRICT;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {String.valueOf(this.number)};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
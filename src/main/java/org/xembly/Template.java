@@ -0,0 +1,114 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Xembly script with placeholders, parsed once and bound many times.
+ *
+ * <p>Arguments may be replaced with named placeholders, which get their
+ * values right before the directives are applied:
+ *
+ * <pre> Template tpl = new Template(
+ *   "XPATH '/orders'; ADD 'order'; ATTR 'id', $id; SET $amount;"
+ * );
+ * new Xembler(
+ *   tpl.with(new ArrayMap&lt;String, Object&gt;().with("id", 553).with("amount", "$140"))
+ * ).apply(dom);</pre>
+ *
+ * <p>The script is parsed and its literal arguments are validated only
+ * once, in the constructor. Directives without placeholders are
+ * shared among all bindings; only the directives with placeholders
+ * are made again for every binding.
+ *
+ * <p>The class is immutable and thread-safe.
+ *
+ * @since 0.33
+ */
+public final class Template {
+
+    /**
+     * Steps of the template.
+     */
+    private final List<Template.Step> steps;
+
+    /**
+     * Ctor.
+     * @param text Xembly script with placeholders
+     */
+    public Template(final String text) {
+        this(Template.parsed(text));
+    }
+
+    /**
+     * Primary ctor.
+     * @param stps Steps of the template
+     */
+    private Template(final List<Template.Step> stps) {
+        this.steps = Collections.unmodifiableList(stps);
+    }
+
+    /**
+     * Bind values to placeholders.
+     *
+     * <p>If a value contains illegal XML characters or a placeholder
+     * doesn't have a value, a runtime exception will be thrown.
+     *
+     * @param values Values of placeholders, by their names
+     * @return Directives
+     */
+    public Iterable<Directive> with(final Map<String, ?> values) {
+        final Collection<Directive> dirs = new ArrayList<>(this.steps.size());
+        for (final Template.Step step : this.steps) {
+            try {
+                dirs.add(step.bind(values));
+            } catch (final XmlContentException ex) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Failed to understand XML content, directive #%d",
+                        dirs.size() + 1
+                    ),
+                    ex
+                );
+            }
+        }
+        return Collections.unmodifiableCollection(dirs);
+    }
+
+    /**
+     * Parse the text.
+     * @param text Xembly script
+     * @return Steps
+     */
+    private static List<Template.Step> parsed(final String text) {
+        final Lexer lexer = new Lexer(new Chars.Sequence(text), true);
+        final List<Template.Step> list = new ArrayList<>(0);
+        while (lexer.hasNext()) {
+            list.add(lexer.step());
+        }
+        return list;
+    }
+
+    /**
+     * Step of the template, which makes a directive.
+     * @since 0.33
+     */
+    @FunctionalInterface
+    interface Step {
+
+        /**
+         * Make a directive.
+         * @param values Values of placeholders
+         * @return Directive
+         * @throws XmlContentException If the values are not valid
+         */
+        Directive bind(Map<String, ?> values) throws XmlContentException;
+    }
+}
@@ -160,7 +160,9 @@ public interface Transformers {
         @Override
         public Transformer create() {
             try {
-                return this.factory.newTransformer();
+                synchronized (this.factory) {
+                    return this.factory.newTransformer();
+                }
             } catch (final TransformerConfigurationException ex) {
                 throw new IllegalStateException(
                     String.format(
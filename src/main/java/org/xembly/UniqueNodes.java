@@ -0,0 +1,188 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.w3c.dom.Node;
+
+/**
+ * Distinct nodes, in the order they were added.
+ *
+ * <p>Nodes are compared by identity, which is how DOM nodes are compared
+ * anyway, and are found by a compact open-addressing table of positions,
+ * without an object per node, as in {@link java.util.HashSet}. Unlike
+ * {@link java.util.HashSet}, the order of nodes is kept, that's why
+ * nodes found by XPath stay in document order and directives, executed
+ * at them, change the document in this order.
+ *
+ * <p>The class is mutable and NOT thread-safe.
+ *
+ * @since 0.33
+ */
+final class UniqueNodes extends AbstractCollection<Node> {
+
+    /**
+     * Nodes, in the order they were added.
+     */
+    private Node[] items;
+
+    /**
+     * How many nodes there are.
+     */
+    private int total;
+
+    /**
+     * Positions of nodes in {@link #items}, plus one, or zeros in
+     * empty slots; the length is a power of two.
+     */
+    private int[] slots;
+
+    /**
+     * Ctor.
+     * @param expected How many nodes are expected, at most
+     */
+    UniqueNodes(final int expected) {
+        this.items = new Node[Math.max(expected, 1)];
+        this.slots = new int[UniqueNodes.capacity(this.items.length)];
+    }
+
+    @Override
+    public boolean add(final Node node) {
+        final int mask = this.slots.length - 1;
+        int pos = UniqueNodes.spread(node) & mask;
+        boolean added = true;
+        while (this.slots[pos] != 0) {
+            if (this.items[this.slots[pos] - 1] == node) {
+                added = false;
+                break;
+            }
+            pos = pos + 1 & mask;
+        }
+        if (added) {
+            if (this.total == this.items.length) {
+                this.items = Arrays.copyOf(this.items, this.total * 2);
+            }
+            this.items[this.total] = node;
+            ++this.total;
+            this.slots[pos] = this.total;
+            if (this.total * 2 > this.slots.length) {
+                this.rehash();
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(final Object node) {
+        final int mask = this.slots.length - 1;
+        int pos = UniqueNodes.spread(node) & mask;
+        boolean found = false;
+        while (this.slots[pos] != 0) {
+            if (this.items[this.slots[pos] - 1] == node) {
+                found = true;
+                break;
+            }
+            pos = pos + 1 & mask;
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return new UniqueNodes.Items(this.items, this.total);
+    }
+
+    @Override
+    public int size() {
+        return this.total;
+    }
+
+    /**
+     * Make the table twice bigger and put all nodes into it again.
+     */
+    private void rehash() {
+        this.slots = new int[this.slots.length * 2];
+        final int mask = this.slots.length - 1;
+        for (int idx = 0; idx < this.total; ++idx) {
+            int pos = UniqueNodes.spread(this.items[idx]) & mask;
+            while (this.slots[pos] != 0) {
+                pos = pos + 1 & mask;
+            }
+            this.slots[pos] = idx + 1;
+        }
+    }
+
+    /**
+     * Size of the table for this many nodes, at most half full.
+     * @param nodes How many nodes
+     * @return Power of two
+     */
+    private static int capacity(final int nodes) {
+        return Integer.highestOneBit(nodes * 2 - 1) << 1;
+    }
+
+    /**
+     * Identity hash of the node, with its higher bits spread down.
+     * @param node The node
+     * @return Hash
+     */
+    private static int spread(final Object node) {
+        final int hash = System.identityHashCode(node);
+        return hash ^ hash >>> 16;
+    }
+
+    /**
+     * Iterator of nodes.
+     *
+     * <p>The class is mutable and NOT thread-safe.
+     *
+     * @since 0.33
+     */
+    private static final class Items implements Iterator<Node> {
+
+        /**
+         * Nodes.
+         */
+        private final Node[] nodes;
+
+        /**
+         * How many of them.
+         */
+        private final int total;
+
+        /**
+         * Position of the next one.
+         */
+        private int pos;
+
+        /**
+         * Ctor.
+         * @param all Nodes
+         * @param size How many of them
+         */
+        Items(final Node[] all, final int size) {
+            this.nodes = all;
+            this.total = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.pos < this.total;
+        }
+
+        @Override
+        public Node next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("There are no more nodes");
+            }
+            final Node node = this.nodes[this.pos];
+            ++this.pos;
+            return node;
+        }
+    }
+}
@@ -5,7 +5,6 @@
 package org.xembly;
 
 import java.util.Collection;
-import java.util.HashSet;
 import lombok.EqualsAndHashCode;
 import org.w3c.dom.Node;
 
@@ -17,31 +16,60 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode
-final class UpDirective implements Directive {
+final class UpDirective implements Directive, Instruction {
 
     @Override
     public String toString() {
         return "UP";
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.UP;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[0];
+    }
+
     @Override
     @SuppressWarnings("aibolit.P13")
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
         throws ImpossibleModificationException {
-        final Collection<Node> parents = new HashSet<>(cursor.size());
-        for (final Node node : cursor) {
-            final Node parent = node.getParentNode();
-            if (parent == null) {
-                throw new ImpossibleModificationException(
-                    String.format(
-                        "There is no parent node of '%s' (%s), can't go UP",
-                        node.getNodeName(), node.getNodeType()
-                    )
-                );
+        final Directive.Cursor result;
+        if (cursor instanceof SingleCursor) {
+            result = new SingleCursor(
+                UpDirective.parent(SingleCursor.class.cast(cursor).node())
+            );
+        } else {
+            final Collection<Node> parents = new UniqueNodes(cursor.size());
+            for (final Node node : cursor) {
+                parents.add(UpDirective.parent(node));
             }
-            parents.add(parent);
+            result = new DomCursor(parents);
+        }
+        return result;
+    }
+
+    /**
+     * Parent of the node.
+     * @param node The node
+     * @return Its parent
+     * @throws ImpossibleModificationException If there is no parent
+     */
+    private static Node parent(final Node node)
+        throws ImpossibleModificationException {
+        final Node parent = node.getParentNode();
+        if (parent == null) {
+            throw new ImpossibleModificationException(
+                String.format(
+                    "There is no parent node of '%s' (%s), can't go UP",
+                    node.getNodeName(), node.getNodeType()
+                )
+            );
         }
-        return new DomCursor(parents);
+        return parent;
     }
 }
@@ -7,74 +7,28 @@ package org.xembly;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.Iterator;
 
 /**
  * Directives in plain text.
+ *
+ * <p>The text is parsed by {@link Lexer} in one pass.
+ *
  * @since 0.24
  */
-@SuppressWarnings({
-    "PMD.GodClass",
-    "PMD.InefficientEmptyStringCheck"
-})
 final class Verbs {
 
-    /**
-     * Commands without arguments.
-     */
-    private static final Map<String, Callback<Directive>> ARGUMENTLESS = new HashMap<>();
-
-    /**
-     * Commands with one argument.
-     */
-    private static final Map<String, Function<String, Callback<Directive>>> SIMPLE =
-        new HashMap<>();
-
-    /**
-     * Commands with two arguments.
-     */
-    private static final Map<String, BiFunction<String, String, Callback<Directive>>> COMPLEX =
-        new HashMap<>();
-
-    static {
-        Verbs.ARGUMENTLESS.put("REMOVE", RemoveDirective::new);
-        Verbs.ARGUMENTLESS.put("UP", UpDirective::new);
-        Verbs.ARGUMENTLESS.put("PUSH", PushDirective::new);
-        Verbs.ARGUMENTLESS.put("POP", PopDirective::new);
-        Verbs.SIMPLE.put("XPATH", value -> () -> new XpathDirective(value));
-        Verbs.SIMPLE.put("SET", value -> () -> new SetDirective(value));
-        Verbs.SIMPLE.put("XSET", value -> () -> new XsetDirective(value));
-        Verbs.SIMPLE.put("ADD", value -> () -> new AddDirective(value));
-        Verbs.SIMPLE.put("ADDIF", value -> () -> new AddIfDirective(value));
-        Verbs.SIMPLE.put("STRICT", value -> () -> new StrictDirective(Integer.parseInt(value)));
-        Verbs.SIMPLE.put("CDATA", value -> () -> new CdataDirective(value));
-        Verbs.SIMPLE.put("COMMENT", value -> () -> new CommentDirective(value));
-        Verbs.COMPLEX.put("ATTR", (attr, value) -> () -> new AttrDirective(attr, value));
-        Verbs.COMPLEX.put("XATTR", (attr, value) -> () -> new XattrDirective(attr, value));
-        Verbs.COMPLEX.put("PI", (target, data) -> () -> new PiDirective(target, data));
-    }
-
     /**
      * Text.
      */
     private final String text;
 
-    /**
-     * Directives.
-     */
-    private final Collection<Directive> dirs;
-
     /**
      * Ctor.
      * @param txt Text to parse
      */
     Verbs(final String txt) {
         this.text = txt;
-        this.dirs = new ArrayList<>(0);
     }
 
     /**
@@ -82,241 +36,11 @@ final class Verbs {
      * @return Directives from text
      */
     Iterable<Directive> directives() {
-        final String trimmed = this.text.trim();
-        if (!trimmed.isEmpty()) {
-            try {
-                final String semicolon = ";";
-                final StringBuilder builder = new StringBuilder();
-                for (final String part : trimmed.split(semicolon, 0)) {
-                    if (builder.length() == 0) {
-                        builder.append(Verbs.ltrim(part));
-                    } else {
-                        builder.append(part);
-                    }
-                    final Optional<Callback<Directive>> command =
-                        Verbs.parsedCommand(builder.toString());
-                    if (command.isPresent()) {
-                        this.dirs.add(command.get().call());
-                        builder.setLength(0);
-                    } else {
-                        builder.append(semicolon);
-                    }
-                }
-            } catch (final XmlContentException | ParsingException ex) {
-                throw new SyntaxException(
-                    String.format(
-                        "Parsing failed as %s: \"%s\"",
-                        ex.getClass().getCanonicalName(),
-                        ex.getLocalizedMessage()
-                    ),
-                    ex
-                );
-            }
-        }
-        return Collections.unmodifiableCollection(this.dirs);
-    }
-
-    private static Optional<Callback<Directive>> parsedCommand(final String part)
-        throws XmlContentException, ParsingException {
-        final Optional<Callback<Directive>> cmd;
-        final String trimmed = Verbs.withoutNumber(part.trim());
-        if (Verbs.ARGUMENTLESS.containsKey(trimmed)) {
-            cmd = Optional.of(Verbs.ARGUMENTLESS.get(trimmed));
-        } else {
-            final int index = Verbs.nearQuoteIndex(part);
-            final String command = Verbs.withoutNumber(part.substring(0, index).trim());
-            if (Verbs.SIMPLE.containsKey(command)) {
-                cmd = Verbs.simpleCommand(part, command, index);
-            } else if (Verbs.COMPLEX.containsKey(command)) {
-                cmd = Verbs.complexCommand(part, command, index);
-            } else {
-                throw new ParsingException(
-                    String.format("Unknown command near [%s;]", part)
-                );
-            }
-        }
-        return cmd;
-    }
-
-    private static String withoutNumber(final String command) {
-        final int index = command.indexOf(':');
-        final String cmd;
-        if (index == -1) {
-            cmd = command;
-        } else {
-            cmd = Verbs.ltrim(command.substring(index + 1));
-        }
-        return cmd;
-    }
-
-    private static int nearQuoteIndex(final String part) throws ParsingException {
-        final int single = part.indexOf('\'');
-        final int dual = part.indexOf('"');
-        if (single == -1 && dual == -1) {
-            throw new ParsingException(
-                String.format("Couldn't find quote in the part of the command near [%s;]", part)
-            );
-        }
-        final int index;
-        if (single != -1 && (dual == -1 || single < dual)) {
-            index = single;
-        } else if (single == -1 || dual < single) {
-            index = dual;
-        } else {
-            throw new ParsingException(
-                String.format("Unexpected behaviour when searching for quotes near [%s;]", part)
-            );
-        }
-        return index;
-    }
-
-    private static Optional<Callback<Directive>> simpleCommand(
-        final String part,
-        final String command,
-        final int index
-    ) throws XmlContentException, ParsingException {
-        final char quote = part.charAt(index);
-        final String[] args = part.split(String.valueOf(quote), 0);
-        final Optional<Callback<Directive>> cmd;
-        if (args.length == 1) {
-            cmd = Optional.empty();
-        } else if (args.length == 2) {
-            if (part.charAt(part.length() - 1) == quote) {
-                cmd = Optional.of(
-                    Verbs.SIMPLE.get(command).apply(
-                        Arg.unescape(String.format("'%s'", args[1]))
-                    )
-                );
-            } else {
-                cmd = Optional.empty();
-            }
-        } else if (args.length == 3) {
-            if (args[2].trim().isEmpty()) {
-                cmd = Optional.of(
-                    Verbs.SIMPLE.get(command).apply(
-                        Arg.unescape(String.format("'%s'", args[1]))
-                    )
-                );
-            } else {
-                throw new ParsingException(
-                    String.format("Unexpected symbols after command argument near [%s;]", part)
-                );
-            }
-        } else {
-            throw new ParsingException(
-                String.format(
-                    "Unexpected behaviour when searching for command arguments [%s;]", part
-                )
-            );
-        }
-        return cmd;
-    }
-
-    private static Optional<Callback<Directive>> complexCommand(
-        final String part,
-        final String command,
-        final int index
-    ) throws XmlContentException, ParsingException {
-        final char quote = part.charAt(index);
-        final String[] args = part.split(String.valueOf(quote), 0);
-        final Optional<Callback<Directive>> cmd;
-        if (args.length == 1) {
-            cmd = Optional.empty();
-        } else if (args.length == 2) {
-            if (part.charAt(part.length() - 1) == quote) {
-                throw new ParsingException(
-                    String.format("Unexpected last quote near [%s;]", part)
-                );
-            }
-            cmd = Optional.empty();
-        } else if (args.length > 2) {
-            final Optional<String> second = Verbs.secondArgument(part, quote, index);
-            if (second.isPresent()) {
-                cmd = Optional.of(
-                    Verbs.COMPLEX.get(command).apply(
-                        Arg.unescape(String.format("'%s'", args[1])),
-                        Arg.unescape(String.format("'%s'", second.get()))
-                    )
-                );
-            } else {
-                cmd = Optional.empty();
-            }
-        } else {
-            throw new ParsingException(
-                String.format(
-                    "Unexpected behaviour when searching for command arguments [%s;]", part
-                )
-            );
-        }
-        return cmd;
-    }
-
-    private static Optional<String> secondArgument(
-        final String part,
-        final char quote,
-        final int index
-    ) throws ParsingException {
-        final String tail = Verbs.ltrim(
-            part.substring(index + part.substring(index + 1).indexOf(quote) + 2)
-        );
-        final Optional<String> arg;
-        if (tail.isEmpty()) {
-            arg = Optional.empty();
-        } else {
-            arg = Verbs.afterComma(part, tail);
-        }
-        return arg;
-    }
-
-    private static Optional<String> afterComma(
-        final String part,
-        final String tail
-    ) throws ParsingException {
-        if (tail.charAt(0) != ',') {
-            throw new ParsingException(
-                String.format("Comma after first argument is expected near [%s;]", part)
-            );
-        }
-        final String rest = Verbs.ltrim(tail.substring(1));
-        if (rest.isEmpty()) {
-            throw new ParsingException(
-                String.format("Unexpected last semicolon near [%s;]", part)
-            );
-        }
-        final char first = rest.charAt(0);
-        if (first != '\'' && first != '"') {
-            throw new ParsingException(
-                String.format("Single or double quote is expected after comma near [%s;]", part)
-            );
-        }
-        return Verbs.secondValue(part, rest.substring(1), first);
-    }
-
-    private static Optional<String> secondValue(
-        final String part,
-        final String rest,
-        final char first
-    ) throws ParsingException {
-        final int next = rest.indexOf(first);
-        final Optional<String> arg;
-        if (next == -1) {
-            arg = Optional.empty();
-        } else {
-            if (!rest.substring(next + 1).trim().isEmpty()) {
-                throw new ParsingException(
-                    String.format("Unexpected symbols after second argument near [%s;]", part)
-                );
-            }
-            arg = Optional.of(rest.substring(0, next));
-        }
-        return arg;
-    }
-
-    private static String ltrim(final String str) {
-        int idx = 0;
-        while (idx < str.length() && Character.isWhitespace(str.charAt(idx))) {
-            ++idx;
+        final Collection<Directive> dirs = new ArrayList<>(0);
+        final Iterator<Directive> lexer = new Lexer(this.text);
+        while (lexer.hasNext()) {
+            dirs.add(lexer.next());
         }
-        return str.substring(idx);
+        return Collections.unmodifiableCollection(dirs);
     }
 }
@@ -4,11 +4,7 @@
  */
 package org.xembly;
 
-import java.util.HashMap;
-import java.util.Map;
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import lombok.EqualsAndHashCode;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -21,12 +17,7 @@ import org.w3c.dom.Node;
  * @since 0.28
  */
 @EqualsAndHashCode(of = "expr")
-final class XattrDirective implements Directive {
-
-    /**
-     * XPath factory.
-     */
-    private static final XPathFactory FACTORY = XPathFactory.newInstance();
+final class XattrDirective implements Directive, Instruction, Session.Aware {
 
     /**
      * Attribute name.
@@ -38,15 +29,31 @@ final class XattrDirective implements Directive {
      */
     private final Arg expr;
 
+    /**
+     * Compiled XPath.
+     */
+    private final Query query;
+
     /**
      * Public ctor.
      * @param attr Name of the attr
      * @param val Text value to set
      * @throws XmlContentException If invalid input
      */
-    XattrDirective(final String attr, final String val) throws XmlContentException {
-        this.name = new Arg(attr);
-        this.expr = new Arg(val);
+    XattrDirective(final CharSequence attr, final CharSequence val) throws XmlContentException {
+        this(new Arg(attr), new Arg(val));
+    }
+
+    /**
+     * Ctor.
+     * @param attr Name of the attr, which is valid already
+     * @param val Text value to set, which is valid already
+     * @since 0.33
+     */
+    XattrDirective(final Arg attr, final Arg val) {
+        this.name = attr;
+        this.expr = val;
+        this.query = Flyweights.query(val.raw());
     }
 
     @Override
@@ -54,31 +61,46 @@ final class XattrDirective implements Directive {
         return String.format("XATTR %s, %s", this.name, this.expr);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.XATTR;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.name.raw(), this.expr.raw()};
+    }
+
     @Override
     public Cursor exec(final Node dom,
         final Cursor cursor, final Stack stack)
         throws ImpossibleModificationException {
-        final Map<Node, String> values =
-            new HashMap<>(0);
-        for (final Node node : cursor) {
-            try {
-                values.put(
-                    node,
-                    XattrDirective.FACTORY.newXPath().evaluate(
-                        this.expr.raw(), node, XPathConstants.STRING
-                    ).toString()
-                );
-            } catch (final XPathExpressionException ex) {
-                throw new ImpossibleModificationException(
-                    String.format("Invalid XPath expr '%s'", this.expr), ex
-                );
-            }
-        }
-        for (final Map.Entry<Node, String> entry : values.entrySet()) {
-            Element.class.cast(entry.getKey()).setAttribute(
-                this.name.raw(), entry.getValue()
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Cursor exec(final Node dom, final Cursor cursor,
+        final Stack stack, final Session session)
+        throws ImpossibleModificationException {
+        final Staging values = new Staging(cursor, session.parallel());
+        try {
+            values.evaluate(this.query, session.xpaths());
+        } catch (final XPathExpressionException ex) {
+            throw new ImpossibleModificationException(
+                String.format("Invalid XPath expr '%s'", this.expr), ex
             );
         }
+        final Index index = session.index();
+        for (int idx = 0; idx < values.size(); ++idx) {
+            final Element element = Element.class.cast(values.node(idx));
+            if (index != null) {
+                index.changing(element, this.name.raw());
+            }
+            element.setAttribute(this.name.raw(), values.value(idx));
+            if (index != null) {
+                index.changed(element, this.name.raw());
+            }
+        }
         return cursor;
     }
 }
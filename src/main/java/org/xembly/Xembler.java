@@ -4,8 +4,16 @@
  */
 package org.xembly;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.StringWriter;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
@@ -50,6 +58,9 @@ import org.w3c.dom.Node;
  * {@link #xmlQuietly()}, {@link #domQuietly()},
  * and {@link #applyQuietly(Node)}.
  *
+ * <p>When the same directives are applied to many documents, compile
+ * them first, see {@link #compile()}.
+ *
  * @since 0.1
  */
 @ToString
@@ -72,6 +83,32 @@ public final class Xembler {
      */
     private final Transformers transformers;
 
+    /**
+     * Stacks factory.
+     */
+    private final Stacks stacks;
+
+    /**
+     * Listener of directives.
+     */
+    private final Listener listener;
+
+    /**
+     * XPath engine.
+     */
+    private final Xpaths xpaths;
+
+    /**
+     * Names of attributes to index, or NULL if nothing is indexed.
+     */
+    private final String[] indexed;
+
+    /**
+     * How many current nodes to evaluate in parallel, at least,
+     * or zero if never.
+     */
+    private final int parallel;
+
     static {
         Xembler.BFACTORY.setNamespaceAware(true);
         Xembler.BFACTORY.setValidating(false);
@@ -92,8 +129,161 @@ public final class Xembler {
      * @param transformers Transformers
      */
     public Xembler(final Iterable<Directive> directives, final Transformers transformers) {
+        this(directives, transformers, new Stacks.Default());
+    }
+
+    /**
+     * Public ctor.
+     * @param directives Directives
+     * @param transformers Transformers
+     * @param stacks Stacks, for {@code PUSH} and {@code POP}
+     * @since 0.33
+     */
+    public Xembler(final Iterable<Directive> directives,
+        final Transformers transformers, final Stacks stacks) {
+        this(directives, transformers, stacks, new Listener.Silent());
+    }
+
+    /**
+     * Public ctor.
+     * @param directives Directives
+     * @param transformers Transformers
+     * @param stacks Stacks, for {@code PUSH} and {@code POP}
+     * @param listener Listener of every directive executed
+     * @since 0.33
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Xembler(final Iterable<Directive> directives,
+        final Transformers transformers, final Stacks stacks,
+        final Listener listener) {
+        this(directives, transformers, stacks, listener, new Xpaths.Default());
+    }
+
+    /**
+     * Public ctor.
+     * @param directives Directives
+     * @param transformers Transformers
+     * @param stacks Stacks, for {@code PUSH} and {@code POP}
+     * @param listener Listener of every directive executed
+     * @param xpaths XPath engine, for {@code XPATH}, {@code XSET}
+     *  and {@code XATTR}
+     * @since 0.33
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Xembler(final Iterable<Directive> directives,
+        final Transformers transformers, final Stacks stacks,
+        final Listener listener, final Xpaths xpaths) {
+        this(directives, transformers, stacks, listener, xpaths, null, 0);
+    }
+
+    /**
+     * Ctor.
+     * @param directives Directives
+     * @param transformers Transformers
+     * @param stacks Stacks, for {@code PUSH} and {@code POP}
+     * @param listener Listener of every directive executed
+     * @param xpaths XPath engine
+     * @param attrs Names of attributes to index, or NULL
+     * @param min How many current nodes to evaluate in parallel, at least,
+     *  or zero if never
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Xembler(final Iterable<Directive> directives,
+        final Transformers transformers, final Stacks stacks,
+        final Listener listener, final Xpaths xpaths, final String[] attrs,
+        final int min) {
         this.directives = directives;
         this.transformers = transformers;
+        this.stacks = stacks;
+        this.listener = listener;
+        this.xpaths = xpaths;
+        this.indexed = attrs;
+        this.parallel = min;
+    }
+
+    /**
+     * Compile the directives once, in order to apply them many times.
+     *
+     * <p>The directives are taken from their source right away and the
+     * Xembler returned doesn't look at the source anymore. It is
+     * immutable and thread-safe, even if the source is not, and may be
+     * applied to many documents from many threads at the same time:
+     *
+     * <pre> Xembler plan = new Xembler(new Directives(script)).compile();
+     * for (Node dom : documents) {
+     *   plan.apply(dom);
+     * }</pre>
+     *
+     * @return Xembler of compiled directives
+     * @since 0.33
+     */
+    public Xembler compile() {
+        return new Xembler(
+            new Plan(this.directives), this.transformers, this.stacks,
+            this.listener, this.xpaths, this.indexed, this.parallel
+        );
+    }
+
+    /**
+     * Index elements of the document, while the directives are applied.
+     *
+     * <p>When {@code XPATH} looks for descendants by name, maybe with
+     * comparisons of attributes with literals, like
+     * {@code //order[@id='123']}, it usually walks the entire document.
+     * The Xembler returned builds an index of elements by names and by
+     * values of the attributes provided, when such a path is met for the
+     * first time, and keeps it up to date, while directives modify the
+     * document, so that the path is found without walking the document:
+     *
+     * <pre> new Xembler(new Directives(script)).indexed("id").apply(dom);</pre>
+     *
+     * <p>The index lives only while the directives are applied.
+     *
+     * @param attrs Names of attributes to index
+     * @return Xembler, which indexes
+     * @since 0.33
+     */
+    public Xembler indexed(final String... attrs) {
+        return new Xembler(
+            this.directives, this.transformers, this.stacks,
+            this.listener, this.xpaths, attrs.clone(), this.parallel
+        );
+    }
+
+    /**
+     * Evaluate expressions of {@code XSET} and {@code XATTR} for large
+     * cursors in parallel.
+     *
+     * <p>When a cursor has at least the number of nodes provided,
+     * values for them are calculated in the common
+     * {@link java.util.concurrent.ForkJoinPool} before any of them is
+     * modified, while the nodes are modified in the calling thread:
+     *
+     * <pre> new Xembler(new Directives(script)).parallel(10_000).apply(dom);</pre>
+     *
+     * <p>Use it only if both the DOM implementation and the XPath
+     * engine are safe to read the same document from many threads at the
+     * same time, while nobody modifies it. The DOM implementation of JDK
+     * is NOT, since its nodes have caches, which are not synchronized,
+     * that's why it's never done by default.
+     *
+     * @param min How many nodes to evaluate in parallel, at least
+     * @return Xembler, which evaluates in parallel
+     * @since 0.33
+     */
+    public Xembler parallel(final int min) {
+        if (min < 1) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The number of nodes to evaluate in parallel must be positive: %d",
+                    min
+                )
+            );
+        }
+        return new Xembler(
+            this.directives, this.transformers, this.stacks,
+            this.listener, this.xpaths, this.indexed, min
+        );
     }
 
     /**
@@ -122,16 +312,53 @@ public final class Xembler {
      * @return The same document/node
      * @throws ImpossibleModificationException If can't modify
      */
-    @SuppressWarnings("aibolit.P15")
     public Node apply(final Node dom) throws ImpossibleModificationException {
-        Directive.Cursor cursor = new DomCursor(
-            Collections.singletonList(dom)
-        );
+        Index index = null;
+        if (this.indexed != null) {
+            index = new Index(dom, this.indexed);
+        }
+        final Iterator<Directive> dirs = this.directives.iterator();
+        try {
+            this.execute(
+                dom, dirs, new Session(index, this.xpaths, this.parallel)
+            );
+        } finally {
+            Xembler.close(dirs);
+        }
+        return dom;
+    }
+
+    /**
+     * Execute all directives.
+     * @param dom DOM document/node
+     * @param dirs Directives
+     * @param session The session
+     * @throws ImpossibleModificationException If can't modify
+     */
+    @SuppressWarnings("aibolit.P15")
+    private void execute(final Node dom, final Iterator<Directive> dirs,
+        final Session session) throws ImpossibleModificationException {
+        Directive.Cursor cursor = new SingleCursor(dom);
         int pos = 1;
-        final Directive.Stack stack = new DomStack();
-        for (final Directive dir : this.directives) {
+        final Directive.Stack stack = this.stacks.create();
+        final boolean listening = !(this.listener instanceof Listener.Silent);
+        final Index index = session.index();
+        while (dirs.hasNext()) {
+            final Directive dir = dirs.next();
+            if (index != null && !(dir instanceof Instruction)) {
+                index.clear();
+            }
             try {
-                cursor = dir.exec(dom, cursor, stack);
+                if (listening) {
+                    cursor = this.listened(
+                        pos, dir, dom, cursor, stack, session
+                    );
+                } else {
+                    cursor = Xembler.exec(dir, dom, cursor, stack, session);
+                }
+                if (Metrics.ENABLED) {
+                    Metrics.GLOBAL.executed(dir);
+                }
             } catch (final ImpossibleModificationException ex) {
                 throw new ImpossibleModificationException(
                     String.format("Directive #%d: %s", pos, dir),
@@ -145,7 +372,80 @@ public final class Xembler {
             }
             ++pos;
         }
-        return dom;
+    }
+
+    /**
+     * Close the iterator of directives, if it may be closed, like
+     * the iterator of {@link Script}, which stops reading it.
+     * @param dirs Iterator of directives
+     */
+    private static void close(final Iterator<Directive> dirs) {
+        if (dirs instanceof Closeable) {
+            try {
+                Closeable.class.cast(dirs).close();
+            } catch (final IOException ex) {
+                throw new IllegalStateException(
+                    "Failed to close directives", ex
+                );
+            }
+        }
+    }
+
+    /**
+     * Execute the directive and tell the listener about it.
+     * @param pos Position of the directive
+     * @param dir The directive
+     * @param dom DOM document/node
+     * @param cursor Nodes we're currently at
+     * @param stack Execution stack
+     * @param session The session
+     * @return New current nodes
+     * @throws ImpossibleModificationException If can't do it
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Directive.Cursor listened(final int pos, final Directive dir,
+        final Node dom, final Directive.Cursor cursor,
+        final Directive.Stack stack, final Session session)
+        throws ImpossibleModificationException {
+        final int before = cursor.size();
+        final long start = System.nanoTime();
+        final Directive.Cursor after = Xembler.exec(
+            dir, dom, cursor, stack, session
+        );
+        final long nanos = System.nanoTime() - start;
+        final String verb;
+        if (dir instanceof Instruction) {
+            verb = Opcodes.name(Instruction.class.cast(dir).opcode());
+        } else {
+            verb = dir.getClass().getSimpleName();
+        }
+        this.listener.executed(pos, verb, dir, before, after.size(), nanos);
+        return after;
+    }
+
+    /**
+     * Execute the directive in the session, if it needs it.
+     * @param dir The directive
+     * @param dom DOM document/node
+     * @param cursor Nodes we're currently at
+     * @param stack Execution stack
+     * @param session The session
+     * @return New current nodes
+     * @throws ImpossibleModificationException If can't do it
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static Directive.Cursor exec(final Directive dir, final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) throws ImpossibleModificationException {
+        final Directive.Cursor result;
+        if (dir instanceof Session.Aware) {
+            result = Session.Aware.class.cast(dir).exec(
+                dom, cursor, stack, session
+            );
+        } else {
+            result = dir.exec(dom, cursor, stack);
+        }
+        return result;
     }
 
     /**
@@ -176,7 +476,9 @@ public final class Xembler {
     public Document dom() throws ImpossibleModificationException {
         final Document dom;
         try {
-            dom = Xembler.BFACTORY.newDocumentBuilder().newDocument();
+            synchronized (Xembler.BFACTORY) {
+                dom = Xembler.BFACTORY.newDocumentBuilder().newDocument();
+            }
         } catch (final ParserConfigurationException ex) {
             throw new IllegalStateException(
                 String.format(
@@ -216,11 +518,65 @@ public final class Xembler {
      * @since 0.9
      */
     public String xml() throws ImpossibleModificationException {
+        return this.print(this.dom());
+    }
+
+    /**
+     * Apply all changes to many documents/nodes, in parallel.
+     *
+     * <p>The directives are compiled once, see {@link #compile()}, and
+     * applied to every document in a separate task of the executor,
+     * for example of {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * or of virtual threads. The documents must be independent, no two
+     * of them may belong to the same DOM tree.
+     *
+     * <p>It waits until all of them are modified. If some of them fail,
+     * the exception of the first of them, in the order of input, is thrown,
+     * with exceptions of the others suppressed in it, in the same order.
+     *
+     * @param doms DOM documents/nodes
+     * @param executor Executor of tasks
+     * @return The same documents/nodes, in the same order
+     * @throws ImpossibleModificationException If can't modify any of them
+     * @since 0.33
+     */
+    public List<Node> applyAll(final Collection<? extends Node> doms,
+        final Executor executor) throws ImpossibleModificationException {
+        final Xembler plan = this.compile();
+        return Xembler.all(doms, executor, plan::apply);
+    }
+
+    /**
+     * Apply all changes to many documents/nodes, in parallel, and
+     * convert them to XML.
+     *
+     * <p>It works just like {@link #applyAll(Collection, Executor)},
+     * but every task also prints its document.
+     *
+     * @param doms DOM documents/nodes
+     * @param executor Executor of tasks
+     * @return XML documents, in the same order
+     * @throws ImpossibleModificationException If can't modify any of them
+     * @since 0.33
+     */
+    public List<String> xmlAll(final Collection<? extends Node> doms,
+        final Executor executor) throws ImpossibleModificationException {
+        final Xembler plan = this.compile();
+        return Xembler.all(doms, executor, dom -> plan.print(plan.apply(dom)));
+    }
+
+    /**
+     * Convert the node to XML.
+     * @param dom DOM document/node
+     * @return XML document
+     */
+    private String print(final Node dom) {
         final Transformer transformer = this.transformers.create();
         final StringWriter writer = new StringWriter();
+        final long start = Metrics.clock();
         try {
             transformer.transform(
-                new DOMSource(this.dom()),
+                new DOMSource(dom),
                 new StreamResult(writer)
             );
         } catch (final TransformerException ex) {
@@ -232,7 +588,61 @@ public final class Xembler {
                 ex
             );
         }
-        return writer.toString();
+        final String xml = writer.toString();
+        if (Metrics.ENABLED) {
+            Metrics.GLOBAL.printed(xml.length(), Metrics.clock() - start);
+        }
+        return xml;
+    }
+
+    /**
+     * Run the job for every document, in parallel, keeping the order.
+     * @param doms DOM documents/nodes
+     * @param executor Executor of tasks
+     * @param job The job
+     * @param <T> Type of results
+     * @return Results, in the order of documents
+     * @throws ImpossibleModificationException If any of the jobs fails
+     */
+    private static <T> List<T> all(final Collection<? extends Node> doms,
+        final Executor executor, final Xembler.Job<T> job)
+        throws ImpossibleModificationException {
+        final List<FutureTask<T>> tasks = new ArrayList<>(doms.size());
+        for (final Node dom : doms) {
+            final FutureTask<T> task = new FutureTask<>(() -> job.run(dom));
+            tasks.add(task);
+            executor.execute(task);
+        }
+        final List<T> results = new ArrayList<>(tasks.size());
+        ImpossibleModificationException error = null;
+        int pos = 0;
+        for (final FutureTask<T> task : tasks) {
+            ++pos;
+            try {
+                results.add(task.get());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                    String.format("Interrupted while waiting for document #%d", pos),
+                    ex
+                );
+            } catch (final ExecutionException ex) {
+                final ImpossibleModificationException failure =
+                    new ImpossibleModificationException(
+                        String.format("Failed to modify document #%d", pos),
+                        ex.getCause()
+                    );
+                if (error == null) {
+                    error = failure;
+                } else {
+                    error.addSuppressed(failure);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return results;
     }
 
     /**
@@ -268,4 +678,21 @@ public final class Xembler {
         }
         return output.toString();
     }
+
+    /**
+     * Job to do with a document.
+     *
+     * @param <T> Type of result
+     * @since 0.33
+     */
+    private interface Job<T> {
+
+        /**
+         * Do it.
+         * @param dom DOM document/node
+         * @return Result
+         * @throws ImpossibleModificationException If fails
+         */
+        T run(Node dom) throws ImpossibleModificationException;
+    }
 }
@@ -6,14 +6,9 @@ package org.xembly;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import lombok.EqualsAndHashCode;
-import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -26,32 +21,41 @@ import org.w3c.dom.NodeList;
  */
 @EqualsAndHashCode(of = "expr")
 @SuppressWarnings("aibolit.P13")
-final class XpathDirective implements Directive {
+final class XpathDirective implements Directive, Instruction, Session.Aware {
 
     /**
-     * XPath factory.
+     * XPath to use.
      */
-    private static final ThreadLocal<XPathFactory> FACTORY =
-        ThreadLocal.withInitial(XPathFactory::newInstance);
+    private final Arg expr;
 
     /**
-     * Pattern to match root-only XPath queries.
+     * Simple path, which is found without JAXP, or NULL.
      */
-    private static final Pattern ROOT_ONLY =
-        Pattern.compile("/([^/\\(\\[\\{:]+)");
+    private final Path path;
 
     /**
-     * XPath to use.
+     * Compiled XPath.
      */
-    private final Arg expr;
+    private final Query query;
 
     /**
      * Public ctor.
      * @param path XPath
      * @throws XmlContentException If invalid input
      */
-    XpathDirective(final String path) throws XmlContentException {
-        this.expr = new Arg(path);
+    XpathDirective(final CharSequence path) throws XmlContentException {
+        this(new Arg(path));
+    }
+
+    /**
+     * Ctor.
+     * @param path XPath, which is valid already
+     * @since 0.33
+     */
+    XpathDirective(final Arg path) {
+        this.expr = path;
+        this.path = Path.parse(path.raw());
+        this.query = Flyweights.query(path.raw());
     }
 
     @Override
@@ -59,51 +63,62 @@ final class XpathDirective implements Directive {
         return String.format("XPATH %s", this.expr);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.XPATH;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.expr.raw()};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
         throws ImpossibleModificationException {
-        final Collection<Node> targets;
-        final String query = this.expr.raw();
-        final Matcher matcher = XpathDirective.ROOT_ONLY.matcher(query);
-        if (matcher.matches()) {
-            targets = XpathDirective.rootOnly(matcher.group(1), dom);
-        } else {
-            targets = XpathDirective.traditional(query, dom, cursor);
-        }
-        return new DomCursor(targets);
+        return this.exec(dom, cursor, stack, Session.PLAIN);
     }
 
-    private static Collection<Node> rootOnly(final String root,
-        final Node dom) {
-        final Node target;
-        if (dom.getOwnerDocument() == null) {
-            target = Document.class.cast(dom).getDocumentElement();
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) throws ImpossibleModificationException {
+        final Collection<Node> targets;
+        if (this.path == null) {
+            targets = XpathDirective.traditional(
+                this.query, dom, cursor, session.xpaths()
+            );
         } else {
-            target = dom.getOwnerDocument().getDocumentElement();
+            targets = XpathDirective.simple(
+                this.path, dom, cursor, session.index()
+            );
         }
-        final Collection<Node> targets;
-        if (root != null && target != null
-            && ("*".equals(root) || target.getNodeName().equals(root))) {
-            targets = Collections.singletonList(target);
+        final Directive.Cursor result;
+        if (targets.size() == 1) {
+            result = new SingleCursor(targets.iterator().next());
         } else {
-            targets = Collections.emptyList();
+            result = new DomCursor(targets);
         }
+        return result;
+    }
+
+    private static Collection<Node> simple(final Path path,
+        final Node dom, final Collection<Node> current, final Index index) {
+        final Collection<Node> targets = new UniqueNodes(0);
+        path.select(XpathDirective.roots(dom, current), targets, index);
         return targets;
     }
 
-    private static Collection<Node> traditional(final String query,
-        final Node dom, final Collection<Node> current)
+    private static Collection<Node> traditional(final Query query,
+        final Node dom, final Collection<Node> current, final Xpaths engine)
         throws ImpossibleModificationException {
-        XpathDirective.FACTORY.remove();
-        final Collection<Node> targets = new HashSet<>(0);
+        final Collection<Node> targets = new UniqueNodes(0);
         for (final Node node : XpathDirective.roots(dom, current)) {
             final NodeList list;
             try {
                 list = NodeList.class.cast(
-                    XpathDirective.FACTORY.get().newXPath().evaluate(
-                        query, node, XPathConstants.NODESET
-                    )
+                    query.evaluate(node, XPathConstants.NODESET, engine)
                 );
             } catch (final XPathExpressionException ex) {
                 throw new ImpossibleModificationException(
@@ -0,0 +1,85 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * XPath engine.
+ *
+ * <p>{@link Xembler} evaluates XPath expressions of {@code XPATH},
+ * {@code XSET} and {@code XATTR} with the engine provided, for example,
+ * with Saxon:
+ *
+ * <pre> new Xembler(
+ *   dirs, new Transformers.Document(), new Stacks.Default(),
+ *   new Listener.Silent(),
+ *   new Xpaths.Of(new net.sf.saxon.xpath.XPathFactoryImpl())
+ * ).apply(dom);</pre>
+ *
+ * <p>Expressions are compiled once for every engine and the compiled
+ * copies are reused, that's why the same engine object should be
+ * used for many applications of directives. Simple paths of
+ * {@code XPATH}, like {@code /root/item[@id='5']}, are found without
+ * any engine.
+ *
+ * @since 0.33
+ */
+@FunctionalInterface
+public interface Xpaths {
+
+    /**
+     * Create XPath, in order to compile expressions.
+     * @return XPath
+     */
+    XPath create();
+
+    /**
+     * The default engine of JDK, which is used if nothing else is
+     * provided.
+     * @since 0.33
+     */
+    final class Default implements Xpaths {
+
+        /**
+         * XPath factory, for every thread.
+         */
+        private static final ThreadLocal<XPathFactory> FACTORY =
+            ThreadLocal.withInitial(XPathFactory::newInstance);
+
+        @Override
+        public XPath create() {
+            return Xpaths.Default.FACTORY.get().newXPath();
+        }
+    }
+
+    /**
+     * Engine of the XPath factory.
+     * @since 0.33
+     */
+    final class Of implements Xpaths {
+
+        /**
+         * XPath factory.
+         */
+        private final XPathFactory factory;
+
+        /**
+         * Ctor.
+         * @param fct XPath factory
+         */
+        public Of(final XPathFactory fct) {
+            this.factory = fct;
+        }
+
+        @Override
+        public XPath create() {
+            synchronized (this.factory) {
+                return this.factory.newXPath();
+            }
+        }
+    }
+}
@@ -4,11 +4,7 @@
  */
 package org.xembly;
 
-import java.util.HashMap;
-import java.util.Map;
-import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import lombok.EqualsAndHashCode;
 import org.w3c.dom.Node;
 
@@ -20,25 +16,35 @@ import org.w3c.dom.Node;
  * @since 0.1
  */
 @EqualsAndHashCode(of = "expr")
-final class XsetDirective implements Directive {
+final class XsetDirective implements Directive, Instruction, Session.Aware {
 
     /**
-     * XPath factory.
+     * XPath to use.
      */
-    private static final XPathFactory FACTORY = XPathFactory.newInstance();
+    private final Arg expr;
 
     /**
-     * XPath to use.
+     * Compiled XPath.
      */
-    private final Arg expr;
+    private final Query query;
 
     /**
      * Public ctor.
      * @param val Text value to set
      * @throws XmlContentException If invalid input
      */
-    XsetDirective(final String val) throws XmlContentException {
-        this.expr = new Arg(val);
+    XsetDirective(final CharSequence val) throws XmlContentException {
+        this(new Arg(val));
+    }
+
+    /**
+     * Ctor.
+     * @param val Text value to set, which is valid already
+     * @since 0.33
+     */
+    XsetDirective(final Arg val) {
+        this.expr = val;
+        this.query = Flyweights.query(val.raw());
     }
 
     @Override
@@ -46,28 +52,44 @@ final class XsetDirective implements Directive {
         return String.format("XSET %s", this.expr);
     }
 
+    @Override
+    public int opcode() {
+        return Opcodes.XSET;
+    }
+
+    @Override
+    public String[] args() {
+        return new String[] {this.expr.raw()};
+    }
+
     @Override
     public Directive.Cursor exec(final Node dom,
         final Directive.Cursor cursor, final Directive.Stack stack)
         throws ImpossibleModificationException {
-        final Map<Node, String> values =
-            new HashMap<>(0);
-        for (final Node node : cursor) {
-            try {
-                values.put(
-                    node,
-                    XsetDirective.FACTORY.newXPath().evaluate(
-                        this.expr.raw(), node, XPathConstants.STRING
-                    ).toString()
-                );
-            } catch (final XPathExpressionException ex) {
-                throw new ImpossibleModificationException(
-                    String.format("Invalid XPath expression '%s'", this.expr), ex
-                );
-            }
+        return this.exec(dom, cursor, stack, Session.PLAIN);
+    }
+
+    @Override
+    public Directive.Cursor exec(final Node dom,
+        final Directive.Cursor cursor, final Directive.Stack stack,
+        final Session session) throws ImpossibleModificationException {
+        final Staging values = new Staging(cursor, session.parallel());
+        try {
+            values.evaluate(this.query, session.xpaths());
+        } catch (final XPathExpressionException ex) {
+            throw new ImpossibleModificationException(
+                String.format("Invalid XPath expression '%s'", this.expr), ex
+            );
         }
-        for (final Map.Entry<Node, String> entry : values.entrySet()) {
-            entry.getKey().setTextContent(entry.getValue());
+        final Index index = session.index();
+        for (int idx = 0; idx < values.size(); ++idx) {
+            if (index != null) {
+                index.emptying(values.node(idx));
+            }
+            values.node(idx).setTextContent(values.value(idx));
+            if (index != null) {
+                index.filled(values.node(idx));
+            }
         }
         return cursor;
     }
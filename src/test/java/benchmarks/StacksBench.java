@@ -0,0 +1,95 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Node;
+import org.xembly.Directives;
+import org.xembly.Stacks;
+import org.xembly.Transformers;
+import org.xembly.Xembler;
+
+/**
+ * Benchmark for {@link Stacks}.
+ * @since 0.33
+ * @checkstyle NonStaticMethodCheck (100 lines)
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class StacksBench {
+
+    /**
+     * Directives with many PUSH and POP.
+     */
+    private Directives dirs;
+
+    /**
+     * Make directives.
+     */
+    @Setup
+    public final void setup() {
+        this.dirs = new Directives().add("root");
+        for (int idx = 0; idx < 100_000; ++idx) {
+            this.dirs.push().add("a").push().add("b").pop().pop();
+        }
+    }
+
+    /**
+     * Benchmark for {@link Stacks.Default}.
+     * @return Document
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final Node withoutLocks() throws Exception {
+        return this.apply(new Stacks.Default());
+    }
+
+    /**
+     * Benchmark for {@link Stacks.Bounded}.
+     * @return Document
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final Node withBounds() throws Exception {
+        return this.apply(new Stacks.Bounded(16));
+    }
+
+    /**
+     * Benchmark for {@link Stacks.Locked}.
+     * @return Document
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final Node withLocks() throws Exception {
+        return this.apply(new Stacks.Locked());
+    }
+
+    /**
+     * Apply directives with the stacks.
+     * @param stacks Stacks
+     * @return Document
+     * @throws Exception If fails
+     */
+    private Node apply(final Stacks stacks) throws Exception {
+        return new Xembler(this.dirs, new Transformers.Document(), stacks).apply(
+            DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()
+        );
+    }
+}
@@ -55,4 +55,46 @@ public class XemblerBench {
             XhtmlMatchers.hasXPath("/root/node[.='49999']")
         );
     }
+
+    /**
+     * Benchmark for directives, executed at many nodes at once.
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final void fansOut() throws Exception {
+        final Directives dirs = new Directives().add("root");
+        for (int idx = 0; idx < 100_000; ++idx) {
+            dirs.add("item").up();
+        }
+        dirs.xpath("/root/item").add("x").add("y").up().up().up()
+            .add("z").remove();
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(dirs).apply(dom);
+        MatcherAssert.assertThat(
+            XhtmlMatchers.xhtml(dom),
+            XhtmlMatchers.hasXPath("/root[count(item/x/y) = 100000]")
+        );
+    }
+
+    /**
+     * Benchmark for a program with many equal XPath expressions.
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final void evaluatesXpaths() throws Exception {
+        final StringBuilder program = new StringBuilder(1000)
+            .append("ADD 'root'; ADD 'node';");
+        for (int idx = 0; idx < 50_000; ++idx) {
+            program.append("XPATH '/root/node'; XSET 'count(..)'; SET '")
+                .append(idx).append("';");
+        }
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(new Directives(program.toString())).compile().apply(dom);
+        MatcherAssert.assertThat(
+            XhtmlMatchers.xhtml(dom),
+            XhtmlMatchers.hasXPath("/root/node[.='49999']")
+        );
+    }
 }
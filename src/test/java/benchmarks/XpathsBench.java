@@ -0,0 +1,126 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import net.sf.saxon.xpath.XPathFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xembly.Directives;
+import org.xembly.Listener;
+import org.xembly.Stacks;
+import org.xembly.Transformers;
+import org.xembly.Xembler;
+import org.xembly.Xpaths;
+
+/**
+ * Benchmark for {@link Xpaths}.
+ * @since 0.33
+ * @checkstyle NonStaticMethodCheck (100 lines)
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class XpathsBench {
+
+    /**
+     * Name of the engine.
+     */
+    @Param({"jdk", "saxon"})
+    private String engine;
+
+    /**
+     * Catalog of products.
+     */
+    private Directives catalog;
+
+    /**
+     * The engine.
+     */
+    private Xpaths xpaths;
+
+    /**
+     * Make the catalog and the engine.
+     */
+    @Setup
+    public final void setup() {
+        this.catalog = new Directives().add("catalog");
+        for (int idx = 0; idx < 1000; ++idx) {
+            this.catalog.add("product")
+                .attr("id", String.format("p%d", idx))
+                .add("price").set(idx % 100).up()
+                .add("tag").set(String.format("t%d", idx % 7)).up()
+                .up();
+        }
+        if ("saxon".equals(this.engine)) {
+            this.xpaths = new Xpaths.Of(new XPathFactoryImpl());
+        } else {
+            this.xpaths = new Xpaths.Default();
+        }
+    }
+
+    /**
+     * Benchmark for predicates, which compare values of children.
+     * @return Document
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final Node filtersByPredicates() throws Exception {
+        return this.apply(
+            new Directives()
+                .xpath("/catalog/product[price > 50 and tag = 't3']")
+                .attr("hot", "yes")
+                .xpath("//product[starts-with(@id, 'p9') and price < 10]")
+                .remove()
+        );
+    }
+
+    /**
+     * Benchmark for values, calculated for many nodes.
+     * @return Document
+     * @throws Exception If fails
+     */
+    @Benchmark
+    public final Node calculatesValues() throws Exception {
+        return this.apply(
+            new Directives()
+                .xpath("/catalog/product")
+                .xattr("rank", "count(preceding-sibling::product[price > 50])")
+                .xpath("/catalog")
+                .xattr("total", "sum(product/price)")
+        );
+    }
+
+    /**
+     * Apply directives to a new catalog.
+     * @param dirs Directives
+     * @return Document
+     * @throws Exception If fails
+     */
+    private Node apply(final Directives dirs) throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(this.catalog).apply(dom);
+        return new Xembler(
+            dirs, new Transformers.Document(), new Stacks.Default(),
+            new Listener.Silent(), this.xpaths
+        ).apply(dom);
+    }
+}
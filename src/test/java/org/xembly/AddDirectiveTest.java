@@ -7,6 +7,7 @@ package org.xembly;
 import com.jcabi.matchers.XhtmlMatchers;
 import javax.xml.parsers.DocumentBuilderFactory;
 import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
 
@@ -34,4 +35,18 @@ final class AddDirectiveTest {
             )
         );
     }
+
+    @Test
+    void staysAtOneNode() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final Directive.Cursor cursor = new AddDirective("car").exec(
+            dom, new SingleCursor(dom), new DomStack()
+        );
+        MatcherAssert.assertThat(
+            "Can't stay at one node, which is added",
+            cursor,
+            Matchers.equalTo(new SingleCursor(dom.getDocumentElement()))
+        );
+    }
 }
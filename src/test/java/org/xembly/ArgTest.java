@@ -4,6 +4,7 @@
  */
 package org.xembly;
 
+import java.nio.CharBuffer;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
@@ -49,4 +50,35 @@ final class ArgTest {
             "Invalid XML content"
         );
     }
+
+    @Test
+    void keepsStringWithoutCopying() throws Exception {
+        final String text = "some long text, which is not copied";
+        MatcherAssert.assertThat(
+            "Can't keep the string as is",
+            new Arg(text).raw(),
+            Matchers.sameInstance(text)
+        );
+    }
+
+    @Test
+    void comparesViewsWithStrings() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't compare a view with a string",
+            new Arg(CharBuffer.wrap("SET 'hello';", 5, 10)),
+            Matchers.allOf(
+                Matchers.equalTo(new Arg("hello")),
+                Matchers.hasToString("\"hello\"")
+            )
+        );
+    }
+
+    @Test
+    void rejectsInvalidCharsInViews() {
+        Assertions.assertThrows(
+            XmlContentException.class,
+            () -> new Arg(CharBuffer.wrap("ADD '\u0000';", 5, 6)),
+            "Invalid XML content in a view"
+        );
+    }
 }
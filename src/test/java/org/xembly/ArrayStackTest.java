@@ -0,0 +1,58 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link ArrayStack}.
+ * @since 0.33
+ */
+final class ArrayStackTest {
+
+    @Test
+    void popsInReverseOrder() throws Exception {
+        final Directive.Stack stack = new ArrayStack();
+        final Directive.Cursor[] cursors = new Directive.Cursor[100];
+        for (int idx = 0; idx < cursors.length; ++idx) {
+            cursors[idx] = Mockito.mock(Directive.Cursor.class);
+            stack.push(cursors[idx]);
+        }
+        boolean reversed = true;
+        for (int idx = cursors.length - 1; idx >= 0; --idx) {
+            reversed &= stack.pop() == cursors[idx];
+        }
+        MatcherAssert.assertThat(
+            "Can't pop cursors in reverse order",
+            reversed,
+            Matchers.is(true)
+        );
+    }
+
+    @Test
+    void throwsExceptionOnEmpty() {
+        Assertions.assertThrows(
+            ImpossibleModificationException.class,
+            () -> new ArrayStack().pop(),
+            "Can't fail on empty stack"
+        );
+    }
+
+    @Test
+    void throwsExceptionWhenFull() {
+        final Directive.Stack stack = new ArrayStack(2);
+        stack.push(Mockito.mock(Directive.Cursor.class));
+        stack.push(Mockito.mock(Directive.Cursor.class));
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            () -> stack.push(Mockito.mock(Directive.Cursor.class)),
+            "Can't fail when the stack is full"
+        );
+    }
+}
@@ -111,4 +111,32 @@ final class AttrDirectiveTest {
             Matchers.not(Matchers.emptyIterable())
         );
     }
+
+    @Test
+    void indexesAttributeWithNamespace() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final Element order = dom.createElement("order");
+        dom.appendChild(order);
+        final Index index = new Index(dom, "a:id", "b:id");
+        index.find(dom, "order", "a:id", "1");
+        new AttrDirective("id a urn:x", "1").exec(
+            dom, new SingleCursor(order), new DomStack(),
+            new Session(index, new Xpaths.Default(), 0)
+        );
+        new AttrDirective("id b urn:x", "2").exec(
+            dom, new SingleCursor(order), new DomStack(),
+            new Session(index, new Xpaths.Default(), 0)
+        );
+        MatcherAssert.assertThat(
+            "fails to index attribute with namespace",
+            index.find(dom, "order", "b:id", "2"),
+            Matchers.contains(order)
+        );
+        MatcherAssert.assertThat(
+            "fails to forget old prefix of attribute with namespace",
+            index.find(dom, "order", "a:id", "1"),
+            Matchers.emptyIterable()
+        );
+    }
 }
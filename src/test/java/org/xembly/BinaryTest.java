@@ -0,0 +1,208 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Binary}.
+ * @since 0.33
+ */
+final class BinaryTest {
+
+    @Test
+    void writesAndReadsAllDirectives() throws Exception {
+        final Directives dirs = new Directives()
+            .pi("xml-stylesheet", "href='a.xsl'")
+            .add("root").attr("id", 1).attr("x y http://x", "2")
+            .cdata("a; b").comment("привет").set("€")
+            .xpath("/root").strict(1).push().pop()
+            .xset("count(*)").xattr("n", "1")
+            .addIf("kid").remove().up();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dirs.writeTo(out);
+        MatcherAssert.assertThat(
+            "Can't read back what was written",
+            Directives.readFrom(new ByteArrayInputStream(out.toByteArray())),
+            Matchers.hasToString(dirs.toString())
+        );
+    }
+
+    @Test
+    void storesRepeatedStringsOnce() throws Exception {
+        final Directives dirs = new Directives().add("root");
+        for (int idx = 0; idx < 1000; ++idx) {
+            dirs.add("item").attr("status", "active").up();
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dirs.writeTo(out);
+        MatcherAssert.assertThat(
+            "Can't make the program compact",
+            out.size(),
+            Matchers.lessThan(
+                dirs.toString().getBytes(StandardCharsets.UTF_8).length / 4
+            )
+        );
+    }
+
+    @Test
+    void readsManyProgramsFromOneStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Directives().add("first").writeTo(out);
+        new Directives().add("second").up().writeTo(out);
+        final InputStream input = new ByteArrayInputStream(out.toByteArray());
+        Directives.readFrom(input);
+        MatcherAssert.assertThat(
+            "Can't read the second program",
+            Directives.readFrom(input),
+            Matchers.hasToString("ADD \"second\";UP;")
+        );
+    }
+
+    @Test
+    void rejectsBrokenStream() {
+        Assertions.assertThrows(
+            IOException.class,
+            () -> Directives.readFrom(
+                new ByteArrayInputStream("ADD 'x';".getBytes(StandardCharsets.UTF_8))
+            ),
+            "Can't reject a stream without signature"
+        );
+    }
+
+    @Test
+    void rejectsTruncatedStream() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Directives().add("truncated").writeTo(out);
+        final byte[] bytes = out.toByteArray();
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new Binary().read(
+                new ByteArrayInputStream(bytes, 0, bytes.length - 3)
+            ),
+            "Can't reject truncated stream"
+        );
+    }
+
+    @Test
+    void rejectsTruncatedLongString() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {'X', 'E', 'M', 'B', 1, Opcodes.ADD, 0}, 0, 7);
+        out.write(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}, 0, 4);
+        out.write(new byte[100], 0, 100);
+        Assertions.assertThrows(
+            EOFException.class,
+            () -> new Binary().read(new ByteArrayInputStream(out.toByteArray())),
+            "Can't reject string, which is shorter than its length"
+        );
+    }
+
+    @Test
+    void rejectsTooLongString() {
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new Binary().read(
+                new ByteArrayInputStream(
+                    new byte[] {
+                        'X', 'E', 'M', 'B', 1, Opcodes.ADD, 0,
+                        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07,
+                    }
+                )
+            ),
+            "Can't reject string, which is too long"
+        );
+    }
+
+    @Test
+    void rejectsNegativeLength() {
+        Assertions.assertThrows(
+            IOException.class,
+            () -> new Binary().read(
+                new ByteArrayInputStream(
+                    new byte[] {
+                        'X', 'E', 'M', 'B', 1, Opcodes.ADD, 0,
+                        (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x0F,
+                    }
+                )
+            ),
+            "Can't reject negative length of string"
+        );
+    }
+
+    @Test
+    void readsLongStrings() throws Exception {
+        final String text = StringUtils.repeat("привет", 50_000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Directives().add("r").set(text).writeTo(out);
+        MatcherAssert.assertThat(
+            "Can't read string longer than a chunk",
+            Directives.readFrom(new ByteArrayInputStream(out.toByteArray())),
+            Matchers.hasToString(new Directives().add("r").set(text).toString())
+        );
+    }
+
+    @Test
+    void rejectsBrokenNumber() {
+        MatcherAssert.assertThat(
+            "Can't explain why the number is broken",
+            Assertions.assertThrows(
+                IOException.class,
+                () -> new Binary().read(BinaryTest.program(Opcodes.STRICT, 'x')),
+                "Can't reject broken number"
+            ).getMessage(),
+            Matchers.startsWith("Broken arguments of STRICT directive #1")
+        );
+    }
+
+    @Test
+    void rejectsBrokenContent() {
+        MatcherAssert.assertThat(
+            "Can't explain why the content is broken",
+            Assertions.assertThrows(
+                IOException.class,
+                () -> new Binary().read(BinaryTest.program(Opcodes.ADD, 0x01)),
+                "Can't reject broken XML content"
+            ).getMessage(),
+            Matchers.startsWith("Broken arguments of ADD directive #1")
+        );
+    }
+
+    @Test
+    void rejectsCustomDirectives() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Binary().write(
+                Collections.<Directive>singletonList((dom, cursor, stack) -> cursor),
+                new ByteArrayOutputStream()
+            ),
+            "Can't reject directive, which is not built-in"
+        );
+    }
+
+    /**
+     * Binary program of one directive with one argument of one byte.
+     * @param code Opcode
+     * @param arg The byte of the argument
+     * @return The program
+     */
+    private static InputStream program(final int code, final int arg) {
+        return new ByteArrayInputStream(
+            new byte[] {
+                'X', 'E', 'M', 'B', 1, (byte) code, 0, 1, (byte) arg, Opcodes.END,
+            }
+        );
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.xml.XMLDocument;
+import java.util.Iterator;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link Copy}.
+ * @since 0.33
+ */
+final class CopyTest {
+
+    @Test
+    void copiesNodeLikeDirectives() {
+        final Node node = new XMLDocument(
+            "<car make='BMW'><wheel/><?pi data?><engine>V8</engine></car>"
+        ).deepCopy();
+        MatcherAssert.assertThat(
+            "Can't copy the node the same way as Directives.copyOf()",
+            new Directives(new Copy(node)),
+            Matchers.hasToString(Directives.copyOf(node).toString())
+        );
+    }
+
+    @Test
+    void copiesVeryDeepNode() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final int depth = 100_000;
+        Node parent = dom;
+        for (int idx = 0; idx < depth; ++idx) {
+            parent = parent.appendChild(dom.createElement("n"));
+        }
+        MatcherAssert.assertThat(
+            "Can't copy deep node without recursion",
+            new Copy(dom),
+            Matchers.iterableWithSize(depth * 2)
+        );
+    }
+
+    @Test
+    void makesDirectivesLazily() {
+        final Iterator<Directive> dirs = new Copy(
+            new XMLDocument("<a><b>x</b><c>y</c><d>z</d></a>").deepCopy()
+        ).iterator();
+        dirs.next();
+        MatcherAssert.assertThat(
+            "Can't make the first directive before walking the rest",
+            dirs.next(),
+            Matchers.hasToString("ADD \"b\"")
+        );
+    }
+
+    @Test
+    void rejectsTextMixedWithElements() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Directives(
+                new Copy(new XMLDocument("<p>text<b/></p>").deepCopy())
+            ),
+            "Can't reject mixed content"
+        );
+    }
+}
@@ -386,6 +386,38 @@ final class DirectivesTest {
         );
     }
 
+    @Test
+    void appendsWhatWasThereAtTheMoment() {
+        final Directives fragment = new Directives().add("page");
+        final Directives dirs = new Directives().append(fragment).up();
+        fragment.set("later");
+        MatcherAssert.assertThat(
+            "Can't ignore directives added to the fragment after append",
+            dirs,
+            Matchers.hasToString("ADD \"page\";UP;")
+        );
+    }
+
+    @Test
+    void appendsItself() {
+        final Directives dirs = new Directives().add("x").up();
+        dirs.append(dirs).append(dirs);
+        MatcherAssert.assertThat(
+            "Can't append directives to themselves",
+            dirs,
+            Matchers.iterableWithSize(8)
+        );
+    }
+
+    @Test
+    void comparesAppendedDirectives() {
+        MatcherAssert.assertThat(
+            "Can't compare shared directives with copied ones",
+            new Directives().add("a").append(new Directives().add("b").up()),
+            Matchers.equalTo(new Directives("ADD 'a'; ADD 'b'; UP;"))
+        );
+    }
+
     private static Directives concurrent(final int tasks) throws Exception {
         final Directives result = new Directives().add("mt6");
         new LengthOf(
@@ -0,0 +1,68 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Iterator;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Flyweights}.
+ * @since 0.33
+ */
+final class FlyweightsTest {
+
+    @Test
+    void sharesDirectivesWithoutArguments() {
+        final Iterator<Directive> dirs = new Directives("UP; UP;").iterator();
+        MatcherAssert.assertThat(
+            "Can't share UP directive",
+            dirs.next(),
+            Matchers.sameInstance(dirs.next())
+        );
+    }
+
+    @Test
+    void sharesDirectivesWithSameName() {
+        final Iterator<Directive> dirs = new Directives()
+            .add("row").up().add("row").iterator();
+        final Directive first = dirs.next();
+        dirs.next();
+        MatcherAssert.assertThat(
+            "Can't share ADD directive with the same name",
+            first,
+            Matchers.sameInstance(dirs.next())
+        );
+    }
+
+    @Test
+    void keepsDirectivesWithDifferentNames() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't tell names apart",
+            Flyweights.add("first"),
+            Matchers.not(Matchers.sameInstance(Flyweights.add("second")))
+        );
+    }
+
+    @Test
+    void rejectsInvalidNames() {
+        Assertions.assertThrows(
+            XmlContentException.class,
+            () -> Flyweights.attr("\u0000", "value"),
+            "Can't reject invalid name of attribute"
+        );
+    }
+
+    @Test
+    void sharesQueries() {
+        MatcherAssert.assertThat(
+            "Can't share equal XPath expressions",
+            Flyweights.query("/root/node"),
+            Matchers.sameInstance(Flyweights.query("/root/node"))
+        );
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link Index}.
+ * @since 0.33
+ */
+final class IndexTest {
+
+    @Test
+    void findsElementsByAttributes() throws Exception {
+        final Document dom = IndexTest.orders();
+        MatcherAssert.assertThat(
+            "Can't find element by attribute",
+            new Index(dom, "id").find(dom, "order", "id", "2"),
+            Matchers.contains(dom.getDocumentElement().getLastChild())
+        );
+    }
+
+    @Test
+    void followsChangesOfAttributes() throws Exception {
+        final Document dom = IndexTest.orders();
+        final Index index = new Index(dom, "id");
+        index.find(dom, "order", "id", "1");
+        final Element order = Element.class.cast(
+            dom.getDocumentElement().getFirstChild()
+        );
+        index.changing(order, "id");
+        order.setAttribute("id", "7");
+        index.changed(order, "id");
+        MatcherAssert.assertThat(
+            "Can't follow changes of attribute",
+            index.find(dom, "order", "id", "7"),
+            Matchers.contains(order)
+        );
+    }
+
+    @Test
+    void forgetsRemovedElements() throws Exception {
+        final Document dom = IndexTest.orders();
+        final Index index = new Index(dom);
+        index.find(dom, "order", null, null);
+        index.removing(dom.getDocumentElement().getFirstChild());
+        dom.getDocumentElement().removeChild(
+            dom.getDocumentElement().getFirstChild()
+        );
+        MatcherAssert.assertThat(
+            "Can't forget removed element",
+            index.find(dom, "order", null, null),
+            Matchers.contains(dom.getDocumentElement().getFirstChild())
+        );
+    }
+
+    @Test
+    void followsChangesOfAttributeNodes() throws Exception {
+        final Document dom = IndexTest.orders();
+        final Index index = new Index(dom, "id");
+        index.find(dom, "order", "id", "1");
+        final Node attr = Element.class.cast(
+            dom.getDocumentElement().getFirstChild()
+        ).getAttributeNode("id");
+        index.emptying(attr);
+        attr.setTextContent("5");
+        index.filled(attr);
+        MatcherAssert.assertThat(
+            "Can't follow changes of attribute node",
+            index.find(dom, "order", "id", "5"),
+            Matchers.contains(dom.getDocumentElement().getFirstChild())
+        );
+    }
+
+    @Test
+    void ignoresOtherDocuments() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't ignore other document",
+            new Index(IndexTest.orders(), "id").find(
+                IndexTest.orders(), "order", "id", "1"
+            ),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Make a document with two orders.
+     * @return The document
+     * @throws Exception If fails
+     */
+    private static Document orders() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(
+            new Directives()
+                .add("orders")
+                .add("order").attr("id", "1").up()
+                .add("order").attr("id", "2")
+        ).apply(dom);
+        return dom;
+    }
+}
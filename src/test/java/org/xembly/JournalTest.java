@@ -0,0 +1,112 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Journal}.
+ * @since 0.33
+ */
+final class JournalTest {
+
+    @Test
+    void keepsItemsInOrderAcrossChunks() {
+        final Journal<Integer> journal = new Journal<>();
+        final Collection<Integer> expected = new ArrayList<>(0);
+        for (int idx = 0; idx < 1000; ++idx) {
+            journal.add(idx);
+            expected.add(idx);
+        }
+        MatcherAssert.assertThat(
+            "Can't keep items in order",
+            journal,
+            Matchers.contains(expected.toArray())
+        );
+    }
+
+    @Test
+    void keepsAppendedItemsTogether() throws Exception {
+        final Journal<Integer> journal = new Journal<>();
+        final ExecutorService service = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(0);
+            for (int task = 0; task < 8; ++task) {
+                final int num = task;
+                futures.add(
+                    service.submit(
+                        () -> {
+                            for (int idx = 0; idx < 1000; ++idx) {
+                                journal.addAll(Arrays.asList(num, num, num));
+                            }
+                        }
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+        int groups = 0;
+        boolean together = true;
+        final Iterator<Integer> items = journal.iterator();
+        while (items.hasNext()) {
+            final Integer first = items.next();
+            together &= first.equals(items.next()) && first.equals(items.next());
+            ++groups;
+        }
+        MatcherAssert.assertThat(
+            "Can't keep items of one append together",
+            together && groups == 8000,
+            Matchers.is(true)
+        );
+    }
+
+    @Test
+    void rejectsItemsBeyondCapacity() {
+        MatcherAssert.assertThat(
+            "Can't explain why the journal is full",
+            Assertions.assertThrows(
+                IllegalStateException.class,
+                () -> new Journal<Integer>((int) Journal.CAPACITY - 1).addAll(
+                    Arrays.asList(1, 2)
+                ),
+                "Can't reject items beyond capacity"
+            ).getMessage(),
+            Matchers.equalTo(
+                "The journal can't keep more than 2147483632 items, 2 more are too many"
+            )
+        );
+    }
+
+    @Test
+    void iteratesSnapshot() {
+        final Journal<String> journal = new Journal<>();
+        journal.add("first");
+        final Iterator<String> snapshot = journal.iterator();
+        for (int idx = 0; idx < 100; ++idx) {
+            journal.add("later");
+        }
+        snapshot.next();
+        MatcherAssert.assertThat(
+            "Can't ignore items appended after the snapshot",
+            snapshot.hasNext(),
+            Matchers.is(false)
+        );
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Lexer}.
+ * @since 0.33
+ */
+final class LexerTest {
+
+    @Test
+    void parsesArgumentsWithSemicolons() {
+        final Iterator<Directive> lexer = new Lexer(
+            "CDATA 'a { b: c; d: e; }'; ATTR \"x;y\" , 'z;';"
+        );
+        MatcherAssert.assertThat(
+            "Can't parse argument with semicolons",
+            lexer.next(),
+            Matchers.hasToString("CDATA \"a { b: c; d: e; }\"")
+        );
+        MatcherAssert.assertThat(
+            "Can't parse two arguments with semicolons",
+            lexer.next(),
+            Matchers.hasToString("ATTR \"x;y\", \"z;\"")
+        );
+        MatcherAssert.assertThat(
+            "Can't stop at the end of the script",
+            lexer.hasNext(),
+            Matchers.is(false)
+        );
+    }
+
+    @Test
+    void parsesEscapedArguments() {
+        MatcherAssert.assertThat(
+            "Can't un-escape XML symbols",
+            new Lexer("SET 'a &amp; &lt;b&gt; &#65;'").next(),
+            Matchers.hasToString("SET \"a &amp; &lt;b&gt; A\"")
+        );
+    }
+
+    @Test
+    void parsesEmptyArguments() {
+        MatcherAssert.assertThat(
+            "Can't parse empty argument",
+            new Lexer("ATTR 'a', '';").next(),
+            Matchers.hasToString("ATTR \"a\", \"\"")
+        );
+    }
+
+    @Test
+    void skipsEmptyStatements() {
+        MatcherAssert.assertThat(
+            "Can't skip empty statements",
+            Arrays.asList(
+                new Directives("ADD 'a';;"),
+                new Directives(String.format(";ADD 'a'; ;%n; UP;;"))
+            ),
+            Matchers.contains(
+                Matchers.hasToString("ADD \"a\";"),
+                Matchers.hasToString("ADD \"a\";UP;")
+            )
+        );
+    }
+
+    @Test
+    void skipsLineNumbers() {
+        final Iterator<Directive> lexer = new Lexer(
+            String.format("ADD 'x';%n1:UP;%n2:  ADD 'y';")
+        );
+        lexer.next();
+        MatcherAssert.assertThat(
+            "Can't skip line number before argumentless command",
+            lexer.next(),
+            Matchers.hasToString("UP")
+        );
+        MatcherAssert.assertThat(
+            "Can't skip line number before command with arguments",
+            lexer.next(),
+            Matchers.hasToString("ADD \"y\"")
+        );
+    }
+
+    @Test
+    void reportsPositionOfError() {
+        MatcherAssert.assertThat(
+            "Can't report line and column of the broken syntax",
+            Assertions.assertThrows(
+                SyntaxException.class,
+                () -> new Verbs("ADD 'a';\n  ADD 'b' x;").directives()
+            ).getMessage(),
+            Matchers.containsString("at line 2, column 11")
+        );
+    }
+
+    @Test
+    void rejectsUnclosedQuote() {
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> new Verbs("ADD 'a'; SET 'broken;").directives(),
+            "Can't detect unclosed quote"
+        );
+    }
+}
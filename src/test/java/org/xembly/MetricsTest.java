@@ -0,0 +1,89 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Metrics}.
+ * @since 0.33
+ */
+final class MetricsTest {
+
+    @Test
+    void countsDirectivesByVerbs() throws Exception {
+        final Metrics metrics = new Metrics();
+        for (final Directive dir : new Directives().add("a").add("b").up()) {
+            metrics.executed(dir);
+        }
+        MatcherAssert.assertThat(
+            "Can't count directives by verbs",
+            metrics.getDirectivesPerVerb(),
+            Matchers.allOf(
+                Matchers.hasEntry("ADD", 2L),
+                Matchers.hasEntry("UP", 1L),
+                Matchers.hasEntry("CUSTOM", 0L)
+            )
+        );
+    }
+
+    @Test
+    void countsInManyThreads() throws Exception {
+        final Metrics metrics = new Metrics();
+        final ExecutorService service = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(0);
+            for (int task = 0; task < 8; ++task) {
+                futures.add(
+                    service.submit(
+                        () -> {
+                            for (int idx = 0; idx < 1000; ++idx) {
+                                metrics.evaluated();
+                            }
+                        }
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+        MatcherAssert.assertThat(
+            "Can't count in many threads",
+            metrics.getXpathEvaluations(),
+            Matchers.equalTo(8000L)
+        );
+    }
+
+    @Test
+    void publishesCountersThroughJmx() throws Exception {
+        final MBeanServer server = MBeanServerFactory.newMBeanServer();
+        final Metrics metrics = new Metrics();
+        metrics.register(server);
+        metrics.parsed(42, 1000L);
+        metrics.printed(100, 500L);
+        final MetricsMXBean bean = JMX.newMXBeanProxy(
+            server, new ObjectName(Metrics.NAME), MetricsMXBean.class
+        );
+        MatcherAssert.assertThat(
+            "Can't publish counters through JMX",
+            bean.getParsedChars() + bean.getSerializedChars(),
+            Matchers.equalTo(142L)
+        );
+    }
+}
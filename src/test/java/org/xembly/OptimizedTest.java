@@ -0,0 +1,83 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Test case for {@link Optimized}.
+ * @since 0.33
+ */
+final class OptimizedTest {
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "ADD 'root'; ADD 'temp'; REMOVE; ADD 'x'; SET 'a'; SET 'b'; UP;",
+            "ADD 'r'; ADD 'a'; ADD 'b'; REMOVE; REMOVE; PUSH; POP; ADD 'c';",
+            "ADD 'r'; PUSH; ADD 'd'; POP; SET 'q'; SET 'w';",
+            "ADD 'r'; ADD 'a'; UP; ADD 'a'; UP; XPATH '/r/a'; XPATH '/r/a'; SET '1';",
+            "ADD 'r'; ADD 'k'; UP; XPATH 'k'; XPATH 'k'; ATTR 'x', '1';",
+            "ADD 'r'; ADD 'k'; UP; XPATH 'k'; XPATH '/r | k'; XPATH '/r | k'; ATTR 'x', '1';",
+            "ADD 'r'; ADDIF 'z'; REMOVE; ADDIF 'z'; SET 'v';",
+            "ADD 'r'; ADD 'x'; SET 'a'; XSET 'concat(., \"b\")'; SET 'c'; UP; CDATA 'd';",
+            "ADD 'r'; XPATH '/nothing'; XPATH '/nothing'; ADD 'never'; REMOVE; STRICT '0';",
+            "ADD 'r'; ADD 'a'; PUSH; REMOVE; POP; XPATH '/r'; XPATH '/r'; ADD 'x';"
+        }
+    )
+    void buildsSameXml(final String script) throws Exception {
+        final Directives dirs = new Directives(script);
+        MatcherAssert.assertThat(
+            "Can't build the same XML with optimized directives",
+            new Xembler(dirs.optimized()).xml(),
+            Matchers.equalTo(new Xembler(dirs).xml())
+        );
+    }
+
+    @Test
+    void eliminatesRedundantDirectives() {
+        MatcherAssert.assertThat(
+            "Can't eliminate redundant directives",
+            new Optimized(
+                new Directives(
+                    "ADD 'r'; ADD 'a'; ADD 'b'; REMOVE; REMOVE; PUSH; POP; SET '1'; SET '2';"
+                )
+            ),
+            Matchers.hasToString("ADD \"r\";SET \"2\";")
+        );
+    }
+
+    @Test
+    void keepsCustomDirectives() {
+        final Directive custom = (dom, cursor, stack) -> cursor;
+        MatcherAssert.assertThat(
+            "Can't keep custom directive between ADD and REMOVE",
+            new Optimized(
+                new Directives().add("r").add("x").append(
+                    Collections.singletonList(custom)
+                ).remove()
+            ),
+            Matchers.iterableWithSize(4)
+        );
+    }
+
+    @Test
+    void reportsEliminatedDirectives() {
+        MatcherAssert.assertThat(
+            "Can't report eliminated directives",
+            new Optimized(
+                new Directives("ADD 'r'; XPATH '/r'; XPATH '/r'; SET 'a'; SET 'b';")
+            ).report(),
+            Matchers.equalTo(
+                "Eliminated 1 of 5 directives: 0 ADD/REMOVE pairs, 0 PUSH/POP pairs, 1 overwritten SETs"
+            )
+        );
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Test case for {@link Path}.
+ * @since 0.33
+ */
+final class PathTest {
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "/root", "/*", "/root/item", "/root/item[2]", "/root/*[1]",
+            "/root/item[@id='1']", "/root/item[@id=\"2\"]/x",
+            "/root/item[@id='1'][2]", "/root/item[2][@id='1']",
+            "/root/item/x[@a='b']", "/root/item/*[2]", "/root/item[9]",
+            "/root/w", "item", "item/x", "*", "/absent", "//x",
+            "//item[@id='1']", "//*[@a='b']", "//w",
+        }
+    )
+    void findsTheSameNodesAsJaxp(final String expr) throws Exception {
+        final DocumentBuilderFactory factory =
+            DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document dom = factory.newDocumentBuilder().parse(
+            new ByteArrayInputStream(
+                String.join(
+                    "",
+                    "<root><item id='1'><x/><x a='b'/></item><!-- c -->",
+                    "<item id='2'><x/><y/></item><item id='1'/>",
+                    "<w xmlns='urn:w'/></root>"
+                ).getBytes(StandardCharsets.UTF_8)
+            )
+        );
+        final NodeList list = NodeList.class.cast(
+            XPathFactory.newInstance().newXPath().evaluate(
+                expr, dom.getDocumentElement(), XPathConstants.NODESET
+            )
+        );
+        final List<Node> expected = new ArrayList<>(list.getLength());
+        for (int idx = 0; idx < list.getLength(); ++idx) {
+            expected.add(list.item(idx));
+        }
+        final List<Node> nodes = new ArrayList<>(0);
+        Path.parse(expr).select(
+            Collections.singletonList(dom.getDocumentElement()), nodes
+        );
+        MatcherAssert.assertThat(
+            String.format("Can't find the same nodes by '%s'", expr),
+            nodes,
+            Matchers.equalTo(expected)
+        );
+    }
+
+    @Test
+    void findsAbsolutePathsFromAttributes() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(
+            new Directives().add("root").add("item").attr("id", "1")
+        ).apply(dom);
+        final Node item = dom.getDocumentElement().getFirstChild();
+        final List<Node> nodes = new ArrayList<>(0);
+        Path.parse("/root/item[@id='1']").select(
+            Collections.singletonList(item.getAttributes().item(0)), nodes
+        );
+        MatcherAssert.assertThat(
+            "Can't find absolute path from attribute",
+            nodes,
+            Matchers.contains(item)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "", "/", "//item", "/root/", "root//item", "/root/@id",
+            "/root/text()", ".", "..", "/a | /b", "/root/item[last()]",
+            "/root/item[0]", "/root/item[@id]", "/root/p:item",
+            "/root[@xmlns='urn:w']", "/root/item[ 1 ]", "//item[1]",
+            "//item/x", "///item",
+        }
+    )
+    void rejectsComplexExpressions(final String expr) {
+        MatcherAssert.assertThat(
+            String.format("Can't reject complex expression '%s'", expr),
+            Path.parse(expr),
+            Matchers.nullValue()
+        );
+    }
+}
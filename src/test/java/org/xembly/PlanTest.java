@@ -0,0 +1,120 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Plan}.
+ * @since 0.33
+ */
+final class PlanTest {
+
+    @Test
+    void makesTheSameDocument() throws Exception {
+        final Directives dirs = new Directives(
+            String.join(
+                "",
+                "ADD 'root'; NS 'urn:test'; ADD 'a'; ATTR 'x', '1'; UP;",
+                "XPATH '/root/a[@x=\"1\"]'; SET 'hi'; XATTR 'y', 'name(..)';",
+                "XPATH '/*'; ADD 'b'; XSET 'count(/root/a)';"
+            )
+        );
+        MatcherAssert.assertThat(
+            "Can't make the same document after compilation",
+            new Xembler(dirs).compile().xml(),
+            Matchers.equalTo(new Xembler(dirs).xml())
+        );
+    }
+
+    @Test
+    void takesDirectivesOnlyOnce() throws Exception {
+        final AtomicInteger taken = new AtomicInteger();
+        final Xembler plan = new Xembler(
+            () -> {
+                taken.incrementAndGet();
+                return new Directives().add("x").iterator();
+            }
+        ).compile();
+        plan.dom();
+        plan.dom();
+        MatcherAssert.assertThat(
+            "Can't take directives from the source only once",
+            taken.get(),
+            Matchers.equalTo(1)
+        );
+    }
+
+    @Test
+    void appliesToManyDocumentsInManyThreads() throws Exception {
+        final Xembler plan = new Xembler(
+            new Directives()
+                .add("orders")
+                .add("order").attr("id", 1).up()
+                .add("order").attr("id", 2).up()
+                .xpath("/orders/order[@id='2']")
+                .xset("sum(/orders/order/@id)")
+        ).compile();
+        final ExecutorService service = Executors.newFixedThreadPool(8);
+        final List<Future<String>> futures = new ArrayList<>(0);
+        try {
+            for (int idx = 0; idx < 200; ++idx) {
+                futures.add(
+                    service.submit(
+                        () -> plan.apply(
+                            DocumentBuilderFactory.newInstance()
+                                .newDocumentBuilder().newDocument()
+                        ).getFirstChild().getLastChild().getTextContent()
+                    )
+                );
+            }
+            for (final Future<String> future : futures) {
+                MatcherAssert.assertThat(
+                    "Can't apply the plan concurrently",
+                    future.get(),
+                    Matchers.equalTo("3")
+                );
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void keepsChangesOfDocument() {
+        MatcherAssert.assertThat(
+            "Can't apply the plan to an empty document",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Directives().add("car").add("make").set("BMW")
+                ).compile().xmlQuietly()
+            ),
+            XhtmlMatchers.hasXPath("/car/make[.='BMW']")
+        );
+    }
+
+    @Test
+    void reportsBrokenXpath() {
+        final Xembler plan = new Xembler(
+            new Directives().add("root").xpath("/root[")
+        ).compile();
+        Assertions.assertThrows(
+            ImpossibleModificationException.class,
+            plan::dom,
+            "Can't report a broken XPath in a compiled plan"
+        );
+    }
+}
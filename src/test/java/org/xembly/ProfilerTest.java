@@ -0,0 +1,75 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Profiler}.
+ * @since 0.33
+ */
+final class ProfilerTest {
+
+    @Test
+    void countsVerbs() throws Exception {
+        final Profiler profiler = new Profiler();
+        new Xembler(
+            new Directives().add("a").add("b").up().add("c").attr("x", "y"),
+            new Transformers.Document(),
+            new Stacks.Default(),
+            profiler
+        ).dom();
+        MatcherAssert.assertThat(
+            "Can't count executions of verbs",
+            profiler.report(),
+            Matchers.allOf(
+                Matchers.containsString("of 5 directives"),
+                Matchers.containsString("ADD: 3 times"),
+                Matchers.containsString("ATTR: 1 times")
+            )
+        );
+    }
+
+    @Test
+    void keepsOnlyTheSlowest() throws Exception {
+        final Profiler profiler = new Profiler(2);
+        final Directive dir = new SetDirective("x");
+        for (int pos = 1; pos <= 5; ++pos) {
+            profiler.executed(pos, "SET", dir, 1, 1, pos * 100L);
+        }
+        MatcherAssert.assertThat(
+            "Can't keep only the slowest directives, the slowest first",
+            profiler.report(),
+            Matchers.allOf(
+                Matchers.containsString("Slowest 2 of 5 directives"),
+                Matchers.containsString(
+                    String.format(
+                        "#5 SET \"x\": 500 ns, 1 -> 1 nodes%n  #4 SET"
+                    )
+                ),
+                Matchers.not(Matchers.containsString("#3 SET"))
+            )
+        );
+    }
+
+    @Test
+    void keepsNothingWithoutTop() throws Exception {
+        final Profiler profiler = new Profiler(0);
+        final Directive dir = new SetDirective("x");
+        for (int pos = 1; pos <= 3; ++pos) {
+            profiler.executed(pos, "SET", dir, 1, 1, pos * 100L);
+        }
+        MatcherAssert.assertThat(
+            "Can't keep nothing, but count verbs",
+            profiler.report(),
+            Matchers.allOf(
+                Matchers.containsString("Slowest 0 of 3 directives"),
+                Matchers.containsString("SET: 3 times, 600 ns")
+            )
+        );
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Program}.
+ * @since 0.33
+ */
+final class ProgramTest {
+
+    @Test
+    void keepsAllDirectives() {
+        final Directives dirs = new Directives()
+            .pi("xml-stylesheet", "href='a.xsl'")
+            .add("root").attr("id", 1).attr("x y http://x", "2")
+            .cdata("a; b").comment("привет").set("€")
+            .xpath("/root").strict(1).push().pop()
+            .xset("count(*)").xattr("n", "1")
+            .addIf("kid").remove().up();
+        MatcherAssert.assertThat(
+            "Can't keep directives in the program",
+            new Program(dirs),
+            Matchers.hasToString(dirs.toString())
+        );
+    }
+
+    @Test
+    void buildsSameXml() throws Exception {
+        final Directives dirs = new Directives().add("rows");
+        for (int idx = 0; idx < 100; ++idx) {
+            dirs.add("row").attr("id", idx).set("ok").up();
+        }
+        MatcherAssert.assertThat(
+            "Can't build the same XML",
+            new Xembler(new Program(dirs)).xml(),
+            Matchers.equalTo(new Xembler(dirs).xml())
+        );
+    }
+
+    @Test
+    void parsesScript() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't parse Xembly script into a program",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Program("ADD 'car'; ATTR 'make', 'BMW'; ADD 'wheel';")
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPath("/car[@make='BMW']/wheel")
+        );
+    }
+
+    @Test
+    void keepsEqualDirectivesOnce() {
+        final Iterator<Directive> steps = new Program(
+            "ADD 'item'; SET 'x'; UP; ADD 'item'; SET 'y'; UP;"
+        ).iterator();
+        final List<Directive> dirs = new ArrayList<>(6);
+        steps.forEachRemaining(dirs::add);
+        MatcherAssert.assertThat(
+            "Can't keep equal directives once",
+            Arrays.asList(dirs.get(3), dirs.get(5)),
+            Matchers.contains(
+                Matchers.sameInstance(dirs.get(0)),
+                Matchers.sameInstance(dirs.get(2))
+            )
+        );
+    }
+
+    @Test
+    void rejectsCustomDirectives() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Program(
+                Collections.<Directive>singletonList((dom, cursor, stack) -> cursor)
+            ),
+            "Can't reject directive, which is not built-in"
+        );
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Programs}.
+ * @since 0.33
+ */
+final class ProgramsTest {
+
+    @Test
+    void returnsTheSameProgram() {
+        final Programs programs = new Programs(10, 1000L);
+        final Iterable<Directive> first = programs.parse("ADD 'a'; SET 'b';");
+        MatcherAssert.assertThat(
+            "Can't return cached program",
+            programs.parse("ADD 'a'; SET 'b';"),
+            Matchers.sameInstance(first)
+        );
+        MatcherAssert.assertThat(
+            "Can't count hits and misses",
+            programs,
+            Matchers.hasToString(Matchers.containsString("1 hits, 1 misses"))
+        );
+    }
+
+    @Test
+    void appliesCachedProgramManyTimes() throws Exception {
+        final Programs programs = new Programs(10, 1000L);
+        for (int idx = 0; idx < 3; ++idx) {
+            MatcherAssert.assertThat(
+                "Can't apply cached program",
+                XhtmlMatchers.xhtml(
+                    new Xembler(programs.parse("ADD 'x'; ATTR 'y', 'z';")).xml()
+                ),
+                XhtmlMatchers.hasXPath("/x[@y='z']")
+            );
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        final Programs programs = new Programs(2, 1000L);
+        programs.parse("ADD 'a';");
+        programs.parse("ADD 'b';");
+        programs.parse("ADD 'a';");
+        programs.parse("ADD 'c';");
+        programs.parse("ADD 'a';");
+        MatcherAssert.assertThat(
+            "Can't evict the least recently used program",
+            programs.evictions(),
+            Matchers.equalTo(1L)
+        );
+        MatcherAssert.assertThat(
+            "Can't keep the recently used program",
+            programs.hits(),
+            Matchers.equalTo(2L)
+        );
+    }
+
+    @Test
+    void evictsByWeight() {
+        final Programs programs = new Programs(100, 20L);
+        programs.parse("ADD 'first';");
+        programs.parse("ADD 'second';");
+        MatcherAssert.assertThat(
+            "Can't evict by total weight",
+            programs.evictions(),
+            Matchers.equalTo(1L)
+        );
+    }
+
+    @Test
+    void doesNotCacheBrokenProgram() {
+        final Programs programs = new Programs(10, 1000L);
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> programs.parse("broken"),
+            "Can't reject broken program"
+        );
+        MatcherAssert.assertThat(
+            "Can't count the miss of broken program",
+            programs.misses(),
+            Matchers.equalTo(1L)
+        );
+    }
+}
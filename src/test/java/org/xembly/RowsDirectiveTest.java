@@ -0,0 +1,184 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link RowsDirective}.
+ * @since 0.33
+ */
+final class RowsDirectiveTest {
+
+    @Test
+    void addsRowsFromScript() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't add rows from the table in script",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Directives(
+                        "ADD 'cars'; ROWS 'car', 'make,model;BMW,X5;Tesla,Model\\, S';"
+                    )
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/cars[count(car)=2]",
+                "/cars/car[1][make='BMW' and model='X5']",
+                "/cars/car[2][make='Tesla' and model='Model, S']"
+            )
+        );
+    }
+
+    @Test
+    void addsRowsFromObjects() throws Exception {
+        final Map<String, Function<Integer, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", num -> num);
+        columns.put("square", num -> num * num);
+        MatcherAssert.assertThat(
+            "Can't add rows from objects",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Directives().add("nums")
+                        .rows("num", Arrays.asList(1, 2, 3), columns)
+                        .add("end")
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/nums[count(num)=3 and end]",
+                "/nums/num[3][id='3' and square='9']"
+            )
+        );
+    }
+
+    @Test
+    void pullsRecordsLazily() throws Exception {
+        final int total = 10_000;
+        final Iterable<Integer> records = () -> new Iterator<Integer>() {
+            private int num;
+
+            @Override
+            public boolean hasNext() {
+                return this.num < total;
+            }
+
+            @Override
+            public Integer next() {
+                ++this.num;
+                return this.num;
+            }
+        };
+        MatcherAssert.assertThat(
+            "Can't pull records one by one",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Directives().add("all").rows(
+                        "item", records,
+                        Collections.singletonMap("v", Function.<Integer>identity())
+                    )
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPath(String.format("/all[count(item)=%d]", total))
+        );
+    }
+
+    @Test
+    void printsRowsAsScript() {
+        final Directives dirs = new Directives("ROWS 'r', 'a,b;1\\;2,\\\\';");
+        MatcherAssert.assertThat(
+            "Can't print rows so that they can be parsed back",
+            new Directives(dirs.toString()),
+            Matchers.hasToString(dirs.toString())
+        );
+    }
+
+    @Test
+    void printsOnlyColumnsOfLazyRecords() throws Exception {
+        final Iterator<String> once = Arrays.asList("alpha", "beta").iterator();
+        final Directives dirs = new Directives().add("all").rows(
+            "item", () -> once,
+            Collections.singletonMap("v", Function.<String>identity())
+        );
+        MatcherAssert.assertThat(
+            "Can't print columns of lazy records",
+            dirs,
+            Matchers.hasToString(
+                Matchers.containsString("ROWS \"item\", <lazy records of \"v\">")
+            )
+        );
+        MatcherAssert.assertThat(
+            "Can't keep lazy records after printing",
+            XhtmlMatchers.xhtml(new Xembler(dirs).xml()),
+            XhtmlMatchers.hasXPath("/all[count(item)=2 and item[2]/v='beta']")
+        );
+    }
+
+    @Test
+    void rejectsPrintedLazyRecords() {
+        final String script = new Directives().add("all").rows(
+            "item", Arrays.asList("alpha", "beta"),
+            Collections.singletonMap("v", Function.<String>identity())
+        ).toString();
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> new Directives(script),
+            "Can't reject lazy records, which were printed"
+        );
+    }
+
+    @Test
+    void comparesRowsByContent() {
+        final Map<String, Function<Integer, Object>> columns =
+            Collections.singletonMap("n", num -> num);
+        final Iterable<Integer> records = Arrays.asList(1, 2);
+        MatcherAssert.assertThat(
+            "Can't compare rows by content",
+            Arrays.asList(
+                new Directives("ROWS 'r', 'a,b;1,2;3,4';"),
+                new Directives().rows("r", records, columns)
+            ),
+            Matchers.contains(
+                new Directives("ROWS 'r', 'a,b;1,2;3,4';"),
+                new Directives().rows("r", records, columns)
+            )
+        );
+    }
+
+    @Test
+    void rejectsRecordsOfWrongSize() {
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> new Directives("ROWS 'r', 'a,b;1';"),
+            "Can't reject record without enough values"
+        );
+    }
+
+    @Test
+    void rejectsInvalidValues() {
+        Assertions.assertThrows(
+            ImpossibleModificationException.class,
+            () -> new Xembler(
+                new Directives().add("x").rows(
+                    "y", Arrays.asList("\u0000"),
+                    Collections.singletonMap("z", Function.<String>identity())
+                )
+            ).apply(
+                DocumentBuilderFactory.newInstance()
+                    .newDocumentBuilder().newDocument()
+            ),
+            "Can't reject invalid XML content in values"
+        );
+    }
+}
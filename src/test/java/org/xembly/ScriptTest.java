@@ -0,0 +1,136 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.StringUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test case for {@link Script}.
+ * @since 0.33
+ */
+final class ScriptTest {
+
+    @Test
+    void parsesFromReader() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't parse script from reader",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Script(
+                        new StringReader("ADD 'car'; ATTR 'name', 'BMW;X5'; ADD 'km'; SET '500';")
+                    )
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPaths(
+                "/car[@name='BMW;X5']",
+                "/car/km[.='500']"
+            )
+        );
+    }
+
+    @Test
+    void parsesFromFileManyTimes(@TempDir final Path dir) throws Exception {
+        final Path file = dir.resolve("script.xe");
+        Files.write(
+            file, "ADD 'привет'; SET 'друг';".getBytes(StandardCharsets.UTF_8)
+        );
+        final Script script = new Script(file);
+        new Xembler(script).xml();
+        MatcherAssert.assertThat(
+            "Can't parse script from file twice",
+            XhtmlMatchers.xhtml(new Xembler(script).xml()),
+            XhtmlMatchers.hasXPath("/привет[.='друг']")
+        );
+    }
+
+    @Test
+    void parsesArgumentsLongerThanBuffer() throws Exception {
+        final String text = StringUtils.repeat("a;b&amp;c ", 10_000);
+        final StringBuilder program = new StringBuilder("ADD 'r';");
+        for (int idx = 0; idx < 10; ++idx) {
+            program.append("ADD 'x'; CDATA '").append(text).append("'; UP;");
+        }
+        MatcherAssert.assertThat(
+            "Can't parse arguments longer than buffer",
+            new Directives(
+                new Script(
+                    new ByteArrayInputStream(
+                        program.toString().getBytes(StandardCharsets.UTF_8)
+                    )
+                )
+            ).toString(),
+            Matchers.equalTo(new Directives(program.toString()).toString())
+        );
+    }
+
+    @Test
+    void parsesLazily() {
+        final Iterator<Directive> dirs = new Script(
+            new StringReader("ADD 'first'; broken;")
+        ).iterator();
+        MatcherAssert.assertThat(
+            "Can't parse the first directive before the broken one",
+            dirs.next(),
+            Matchers.hasToString("ADD \"first\"")
+        );
+        Assertions.assertThrows(
+            SyntaxException.class,
+            dirs::next,
+            "Can't detect broken directive"
+        );
+    }
+
+    @Test
+    void rejectsSecondIterationOfReader() {
+        final Reader reader = new StringReader("ADD 'x';");
+        final Script script = new Script(reader);
+        script.iterator();
+        Assertions.assertThrows(
+            IllegalStateException.class,
+            script::iterator,
+            "Can't reject second iteration"
+        );
+    }
+
+    @Test
+    void closesReaderWhenDirectiveFails() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final Reader reader = new FilterReader(
+            new StringReader("ADD 'r'; STRICT '2'; ADD 'never';")
+        ) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        };
+        Assertions.assertThrows(
+            ImpossibleModificationException.class,
+            () -> new Xembler(new Script(reader)).xml(),
+            "Can't fail in the middle of the script"
+        );
+        MatcherAssert.assertThat(
+            "Can't close reader when directive fails",
+            closed.get(),
+            Matchers.is(true)
+        );
+    }
+}
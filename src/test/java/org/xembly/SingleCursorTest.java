@@ -0,0 +1,64 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link SingleCursor}.
+ * @since 0.33
+ */
+final class SingleCursorTest {
+
+    @Test
+    void iteratesTheOnlyNode() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        MatcherAssert.assertThat(
+            "Can't iterate the only node",
+            new SingleCursor(dom),
+            Matchers.contains(dom)
+        );
+    }
+
+    @Test
+    void endsIterationAfterTheNode() throws Exception {
+        final Iterator<Node> nodes = new SingleCursor(
+            DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument()
+        ).iterator();
+        nodes.next();
+        Assertions.assertThrows(
+            NoSuchElementException.class,
+            nodes::next,
+            "Can't end iteration after the only node"
+        );
+    }
+
+    @Test
+    void movesUpAndDownWithoutLeavingOneNode() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        Directive.Cursor cursor = new SingleCursor(dom);
+        final Directive.Stack stack = new DomStack();
+        final Iterable<Directive> dirs = new Directives()
+            .add("a").add("b").attr("c", "d").set("e").up().up();
+        for (final Directive dir : dirs) {
+            cursor = dir.exec(dom, cursor, stack);
+        }
+        MatcherAssert.assertThat(
+            "Can't stay at one node, while moving up and down",
+            cursor,
+            Matchers.instanceOf(SingleCursor.class)
+        );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Stacks}.
+ * @since 0.33
+ */
+final class StacksTest {
+
+    @Test
+    void appliesWithLockedStack() {
+        MatcherAssert.assertThat(
+            "Can't apply directives with a locked stack",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Directives().add("a").push().add("b").pop().add("c"),
+                    new Transformers.Document(),
+                    new Stacks.Locked()
+                ).xmlQuietly()
+            ),
+            XhtmlMatchers.hasXPaths("/a/b", "/a/c")
+        );
+    }
+
+    @Test
+    void failsWhenBoundedStackIsTooDeep() {
+        final Xembler xembler = new Xembler(
+            new Directives().add("x").push().push().push(),
+            new Transformers.Document(),
+            new Stacks.Bounded(2)
+        );
+        MatcherAssert.assertThat(
+            "Can't explain why the stack is deeper than allowed",
+            Assertions.assertThrows(
+                ImpossibleModificationException.class,
+                xembler::dom,
+                "Can't fail when the stack is deeper than allowed"
+            ).getCause().getMessage(),
+            Matchers.equalTo(
+                "Can't PUSH: Stack is full, can't PUSH more than 2 cursors"
+            )
+        );
+    }
+
+    @Test
+    void rejectsNegativeDepth() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Stacks.Bounded(-1),
+            "Can't reject negative depth of the stack"
+        );
+    }
+}
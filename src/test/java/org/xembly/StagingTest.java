@@ -0,0 +1,111 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathExpressionException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link Staging}.
+ * @since 0.33
+ */
+final class StagingTest {
+
+    @Test
+    void keepsOrderOfCursor() throws Exception {
+        final List<Node> nodes = StagingTest.items(10);
+        final Staging staging = new Staging(nodes, 0).evaluate(
+            new Query("string(@n)"), new Xpaths.Default()
+        );
+        final List<String> values = new ArrayList<>(staging.size());
+        for (int idx = 0; idx < staging.size(); ++idx) {
+            MatcherAssert.assertThat(
+                "Can't keep the node in its position",
+                staging.node(idx),
+                Matchers.sameInstance(nodes.get(idx))
+            );
+            values.add(staging.value(idx));
+        }
+        MatcherAssert.assertThat(
+            "Can't keep values in the order of the cursor",
+            values,
+            Matchers.contains("0", "1", "2", "3", "4", "5", "6", "7", "8", "9")
+        );
+    }
+
+    @Test
+    void calculatesInParallel() throws Exception {
+        final List<Node> nodes = StagingTest.apart(1000);
+        final Staging staging = new Staging(nodes, 1).evaluate(
+            new Query("concat(@n, '!')"), new Xpaths.Default()
+        );
+        MatcherAssert.assertThat(
+            "Can't calculate values in parallel",
+            staging.value(997),
+            Matchers.equalTo("7!")
+        );
+    }
+
+    @Test
+    void reportsInvalidExpressionInParallel() throws Exception {
+        Assertions.assertThrows(
+            XPathExpressionException.class,
+            () -> new Staging(StagingTest.apart(10), 1).evaluate(
+                new Query("((("), new Xpaths.Default()
+            ),
+            "Can't report invalid expression"
+        );
+    }
+
+    /**
+     * Make elements with numbers, cycling from 0 to 9.
+     * @param total How many of them
+     * @return Elements
+     * @throws Exception If fails
+     */
+    private static List<Node> items(final int total) throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final Element root = dom.createElement("root");
+        dom.appendChild(root);
+        final List<Node> nodes = new ArrayList<>(total);
+        for (int idx = 0; idx < total; ++idx) {
+            final Element item = dom.createElement("item");
+            item.setAttribute("n", String.valueOf(idx % 10));
+            root.appendChild(item);
+            nodes.add(item);
+        }
+        return nodes;
+    }
+
+    /**
+     * Make elements with numbers, cycling from 0 to 9, each in a document
+     * of its own, since a document may not be read from many threads.
+     * @param total How many of them
+     * @return Elements
+     * @throws Exception If fails
+     */
+    private static List<Node> apart(final int total) throws Exception {
+        final List<Node> nodes = new ArrayList<>(total);
+        for (int idx = 0; idx < total; ++idx) {
+            final Document dom = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().newDocument();
+            final Element item = dom.createElement("item");
+            item.setAttribute("n", String.valueOf(idx % 10));
+            dom.appendChild(item);
+            nodes.add(item);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.immutable.ArrayMap;
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Template}.
+ * @since 0.33
+ */
+final class TemplateTest {
+
+    @Test
+    void bindsValuesManyTimes() throws Exception {
+        final Template tpl = new Template(
+            "ADD 'orders'; ADD 'order'; ATTR 'id', $id; SET $amount;"
+        );
+        for (int idx = 0; idx < 3; ++idx) {
+            MatcherAssert.assertThat(
+                "Can't bind values to placeholders",
+                XhtmlMatchers.xhtml(
+                    new Xembler(
+                        tpl.with(
+                            new ArrayMap<String, Object>()
+                                .with("id", idx)
+                                .with("amount", "$1;40")
+                        )
+                    ).xml()
+                ),
+                XhtmlMatchers.hasXPath(
+                    String.format("/orders/order[@id='%d' and .='$1;40']", idx)
+                )
+            );
+        }
+    }
+
+    @Test
+    void bindsNamesOfAttributes() throws Exception {
+        MatcherAssert.assertThat(
+            "Can't bind placeholder in the first argument",
+            XhtmlMatchers.xhtml(
+                new Xembler(
+                    new Template("ADD 'car'; ATTR $name , 'BMW';").with(
+                        Collections.singletonMap("name", "make")
+                    )
+                ).xml()
+            ),
+            XhtmlMatchers.hasXPath("/car[@make='BMW']")
+        );
+    }
+
+    @Test
+    void rejectsUnboundPlaceholder() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Template("ADD $name;").with(Collections.emptyMap()),
+            "Can't reject unbound placeholder"
+        );
+    }
+
+    @Test
+    void rejectsInvalidValue() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Template("ADD 'x'; SET $text;").with(
+                Collections.singletonMap("text", "\u0000")
+            ),
+            "Can't reject invalid XML content"
+        );
+    }
+
+    @Test
+    void rejectsPlaceholdersInPlainScript() {
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> new Directives("ADD 'x'; SET $text;"),
+            "Can't reject placeholder outside of template"
+        );
+    }
+
+    @Test
+    void rejectsBrokenTemplate() {
+        Assertions.assertThrows(
+            SyntaxException.class,
+            () -> new Template("ADD 'x'; SET $;"),
+            "Can't reject placeholder without name"
+        );
+    }
+}
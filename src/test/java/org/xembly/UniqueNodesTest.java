@@ -0,0 +1,58 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link UniqueNodes}.
+ * @since 0.33
+ */
+final class UniqueNodesTest {
+
+    @Test
+    void keepsOrderOfNodes() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final List<Node> nodes = new ArrayList<>(0);
+        final Collection<Node> unique = new UniqueNodes(0);
+        for (int idx = 0; idx < 1000; ++idx) {
+            final Node node = dom.createElement("x");
+            nodes.add(node);
+            unique.add(node);
+        }
+        MatcherAssert.assertThat(
+            "Can't keep nodes in the order they were added",
+            unique,
+            Matchers.contains(nodes.toArray())
+        );
+    }
+
+    @Test
+    void ignoresTheSameNode() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final Node first = dom.createElement("a");
+        final Node second = dom.createElement("a");
+        final Collection<Node> unique = new UniqueNodes(2);
+        for (int idx = 0; idx < 100; ++idx) {
+            unique.add(first);
+            unique.add(second);
+        }
+        MatcherAssert.assertThat(
+            "Can't ignore the node, which was added already",
+            unique,
+            Matchers.contains(first, second)
+        );
+    }
+}
@@ -9,8 +9,12 @@ import com.jcabi.matchers.XhtmlMatchers;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.jcabi.xml.XPathContext;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.xml.parsers.DocumentBuilderFactory;
 import net.jqwik.api.ForAll;
 import net.jqwik.api.Property;
@@ -25,6 +29,7 @@ import org.hamcrest.Matcher;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.hamcrest.core.AllOf;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -295,6 +300,86 @@ final class XemblerTest {
     }
 
     @SuppressWarnings("unchecked")
+    @Test
+    void tellsListenerAboutEveryDirective() throws Exception {
+        final List<String> heard = new ArrayList<>(0);
+        new Xembler(
+            new Directives().add("a").add("b").up().up(),
+            new Transformers.Document(),
+            new Stacks.Default(),
+            (pos, verb, dir, before, after, nanos) -> heard.add(
+                String.format("%d:%s:%d", pos, verb, after)
+            )
+        ).dom();
+        MatcherAssert.assertThat(
+            "Can't tell listener about every directive",
+            heard,
+            Matchers.contains("1:ADD:1", "2:ADD:1", "3:UP:1", "4:UP:1")
+        );
+    }
+
+    @Test
+    void appliesToManyDocumentsInOrder() throws Exception {
+        final List<Node> doms = new ArrayList<>(0);
+        for (int idx = 0; idx < 100; ++idx) {
+            final Document dom = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().newDocument();
+            dom.appendChild(dom.createElement("doc")).setTextContent(
+                Integer.toString(idx)
+            );
+            doms.add(dom);
+        }
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        final List<String> xmls;
+        try {
+            xmls = new Xembler(
+                new Directives().xpath("/doc").attr("id", "x").xattr("id", "text()"),
+                new Transformers.Node()
+            ).xmlAll(doms, service);
+        } finally {
+            service.shutdown();
+        }
+        MatcherAssert.assertThat(
+            "Can't apply to many documents, keeping their order",
+            xmls.get(42),
+            Matchers.equalTo("<doc id=\"42\">42</doc>")
+        );
+    }
+
+    @Test
+    void reportsFailuresOfManyDocumentsInOrder() throws Exception {
+        final List<Node> doms = new ArrayList<>(0);
+        for (int idx = 0; idx < 5; ++idx) {
+            final Document dom = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().newDocument();
+            if (idx != 1 && idx != 3) {
+                dom.appendChild(dom.createElement("doc"));
+            }
+            doms.add(dom);
+        }
+        final ExecutorService service = Executors.newFixedThreadPool(4);
+        final ImpossibleModificationException error;
+        try {
+            error = Assertions.assertThrows(
+                ImpossibleModificationException.class,
+                () -> new Xembler(new Directives().xpath("/doc").strict(1))
+                    .applyAll(doms, service),
+                "Can't fail when some documents can't be modified"
+            );
+        } finally {
+            service.shutdown();
+        }
+        MatcherAssert.assertThat(
+            "Can't report failures in the order of documents",
+            String.format(
+                "%s; %s", error.getMessage(), error.getSuppressed()[0].getMessage()
+            ),
+            Matchers.equalTo(
+                "Failed to modify document #2; Failed to modify document #4"
+            )
+        );
+    }
+
     private static XML outcomeOf(final String story) {
         final Map<String, Object> yaml = new Yaml().load(story);
         return new XMLDocument(
@@ -324,4 +409,64 @@ final class XemblerTest {
             )
         );
     }
+
+    @Test
+    void findsIndexedNodesAfterChanges() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(
+            new Directives()
+                .add("orders")
+                .add("order").attr("id", "1").up()
+                .add("order").attr("id", "2").up()
+                .xpath("//order[@id='1']").attr("id", "3")
+                .xpath("//order[@id='2']").remove()
+                .add("order").attr("id", "2").set("new")
+                .xpath("//order[@id='3']").add("done")
+                .xpath("//order[@id='2']").strict(1).attr("found", "yes")
+        ).indexed("id").apply(dom);
+        MatcherAssert.assertThat(
+            "Can't find indexed nodes after changes",
+            XhtmlMatchers.xhtml(dom),
+            XhtmlMatchers.hasXPaths(
+                "/orders[count(order) = 2]",
+                "/orders/order[@id='3']/done",
+                "/orders/order[@id='2' and @found='yes' and .='new']"
+            )
+        );
+    }
+
+    @Test
+    void findsIndexedNodesAfterChangesOfAttributeNodes() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        new Xembler(
+            new Directives()
+                .add("orders")
+                .add("order").attr("id", "1").up()
+                .add("order").attr("id", "2").up()
+                .xpath("//order[@id='1']")
+                .xpath("/orders/order[1]/@id").set("x")
+                .xpath("//order[@id='x']").add("first").up()
+                .xpath("/orders/order[2]/@id").xset("concat(., 'y')")
+                .xpath("//order[@id='2y']").add("second")
+        ).indexed("id").apply(dom);
+        MatcherAssert.assertThat(
+            "Can't find indexed nodes after changes of attribute nodes",
+            XhtmlMatchers.xhtml(dom),
+            XhtmlMatchers.hasXPaths(
+                "/orders/order[@id='x']/first",
+                "/orders/order[@id='2y']/second"
+            )
+        );
+    }
+
+    @Test
+    void rejectsNonPositiveParallelism() {
+        Assertions.assertThrows(
+            IllegalArgumentException.class,
+            () -> new Xembler(new Directives()).parallel(0),
+            "Can't reject zero nodes to evaluate in parallel"
+        );
+    }
 }
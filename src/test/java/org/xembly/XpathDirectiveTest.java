@@ -109,4 +109,25 @@ final class XpathDirectiveTest {
             XhtmlMatchers.hasXPath("/high/boom-5")
         );
     }
+
+    @Test
+    void findsNodesInDocumentOrder() throws Exception {
+        final Document dom = DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder().newDocument();
+        final Element root = dom.createElement("list");
+        dom.appendChild(root);
+        final Node[] items = new Node[100];
+        for (int idx = 0; idx < items.length; ++idx) {
+            items[idx] = root.appendChild(dom.createElement("item"));
+        }
+        MatcherAssert.assertThat(
+            "Can't find nodes in document order",
+            new XpathDirective("item").exec(
+                dom,
+                new DomCursor(Collections.singletonList(root)),
+                new DomStack()
+            ),
+            Matchers.contains(items)
+        );
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * SPDX-FileCopyrightText: Copyright (c) 2013-2026 Yegor Bugayenko
+ * SPDX-License-Identifier: MIT
+ */
+package org.xembly;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.xpath.XPathFactory;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test case for {@link Xpaths}.
+ * @since 0.33
+ */
+final class XpathsTest {
+
+    @Test
+    void evaluatesWithFactoryProvided() throws Exception {
+        final XPathFactory factory = XPathFactory.newInstance();
+        factory.setXPathVariableResolver(name -> "hello");
+        MatcherAssert.assertThat(
+            "Can't evaluate with the factory provided",
+            new Xembler(
+                new Directives().add("root").xset("$greeting"),
+                new Transformers.Document(), new Stacks.Default(),
+                new Listener.Silent(), new Xpaths.Of(factory)
+            ).xml(),
+            XhtmlMatchers.hasXPath("/root[.='hello']")
+        );
+    }
+
+    @Test
+    void compilesExpressionsOnce() throws Exception {
+        final AtomicInteger made = new AtomicInteger();
+        final Xembler xembler = new Xembler(
+            new Directives("ADD 'r'; XSET \"'once'\"; XATTR 'a', \"'once'\";"),
+            new Transformers.Document(), new Stacks.Default(),
+            new Listener.Silent(),
+            () -> {
+                made.incrementAndGet();
+                return XPathFactory.newInstance().newXPath();
+            }
+        );
+        for (int idx = 0; idx < 10; ++idx) {
+            xembler.xml();
+        }
+        MatcherAssert.assertThat(
+            "Can't compile expression only once",
+            made.get(),
+            Matchers.equalTo(1)
+        );
+    }
+
+    @Test
+    void keepsCompiledExpressionsOfManyEngines() throws Exception {
+        final AtomicInteger first = new AtomicInteger();
+        final AtomicInteger second = new AtomicInteger();
+        final Directives dirs = new Directives("ADD 'r'; XSET \"'twice'\";");
+        final Xembler one = XpathsTest.counting(dirs, first);
+        final Xembler two = XpathsTest.counting(dirs, second);
+        for (int idx = 0; idx < 10; ++idx) {
+            one.xml();
+            two.xml();
+        }
+        MatcherAssert.assertThat(
+            "Can't keep compiled expressions of every engine",
+            first.get() + second.get(),
+            Matchers.equalTo(2)
+        );
+    }
+
+    /**
+     * Make Xembler with an engine, which counts XPaths made.
+     * @param dirs Directives
+     * @param made Counter of XPaths made
+     * @return Xembler
+     */
+    private static Xembler counting(final Iterable<Directive> dirs,
+        final AtomicInteger made) {
+        return new Xembler(
+            dirs, new Transformers.Document(), new Stacks.Default(),
+            new Listener.Silent(),
+            () -> {
+                made.incrementAndGet();
+                return XPathFactory.newInstance().newXPath();
+            }
+        );
+    }
+}